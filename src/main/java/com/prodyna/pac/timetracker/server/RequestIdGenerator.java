@@ -0,0 +1,90 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates the ids for correlating the log outputs of a {@code Request}. The
+ * ids are only used for logging, so they are created by
+ * {@link ThreadLocalRandom} instead of {@link UUID#randomUUID()}, which uses
+ * the blocking and contended {@code SecureRandom}. The ids keep the format of
+ * a random {@link UUID}.
+ * <p/>
+ * An id provided by the caller in the {@value #REQUEST_ID_HEADER} or
+ * {@value #TRACEPARENT_HEADER} header is reused, so the id flows across
+ * services.
+ *
+ * @author apatrikis
+ * @see <a href="https://www.w3.org/TR/trace-context/">Trace Context</a>
+ */
+public final class RequestIdGenerator {
+
+    /**
+     * The header for passing the request id.
+     */
+    public static final String REQUEST_ID_HEADER = "X-UUID";
+
+    /**
+     * The {@code W3C Trace Context} header, its trace id is used as request id.
+     */
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    /**
+     * Accepted request ids: short and without characters that could forge log
+     * lines.
+     */
+    private static final Pattern REQUEST_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    /**
+     * Version, trace id, parent id and flags of a {@code traceparent} header.
+     */
+    private static final Pattern TRACEPARENT_PATTERN = Pattern.compile("[0-9a-f]{2}-([0-9a-f]{32})-[0-9a-f]{16}-[0-9a-f]{2}");
+
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+
+    private RequestIdGenerator() {
+    }
+
+    /**
+     * Get the request id: the valid {@value #REQUEST_ID_HEADER} header, else
+     * the trace id of a valid {@value #TRACEPARENT_HEADER} header, else a new
+     * id.
+     *
+     * @param requestIdHeader The value of the {@value #REQUEST_ID_HEADER}
+     * header, may be {@code null}.
+     * @param traceparentHeader The value of the {@value #TRACEPARENT_HEADER}
+     * header, may be {@code null}.
+     * @return The request id.
+     */
+    public static String getRequestId(String requestIdHeader, String traceparentHeader) {
+        if ((requestIdHeader != null) && REQUEST_ID_PATTERN.matcher(requestIdHeader).matches()) {
+            return requestIdHeader;
+        }
+        if (traceparentHeader != null) {
+            Matcher matcher = TRACEPARENT_PATTERN.matcher(traceparentHeader.trim());
+            if (matcher.matches() && !INVALID_TRACE_ID.equals(matcher.group(1))) {
+                return matcher.group(1);
+            }
+        }
+        return newRequestId();
+    }
+
+    /**
+     * Create a new id with 122 random bits, formatted like a random
+     * {@link UUID}.
+     *
+     * @return The new id.
+     */
+    public static String newRequestId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+        long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
@@ -6,12 +6,10 @@ package com.prodyna.pac.timetracker.server;
 
 import java.io.IOException;
 import java.security.Principal;
-import java.util.UUID;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
-import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
@@ -24,9 +22,10 @@ import org.slf4j.MDC;
  * {@code Response}. This is used for:
  * <ul>
  * <li>setting up the {@link MDC} for identifying the {@code Request} in all
- * created log outputs</li>
+ * created log outputs, by an id from {@link RequestIdGenerator}</li>
  * <li>creating log statements before and after the processing of the
- * request</li>
+ * request; the response is audited by the {@link ResponseAuditInterceptor},
+ * without converting the entity to a {@code String}</li>
  * </ul>
  *
  * @author apatrikis
@@ -43,8 +42,11 @@ public class RequestResponseFilter implements ContainerRequestFilter, ContainerR
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
         // declare UUID for identyfying subsequent calls in logs
-        MDC.put("UUID", UUID.randomUUID().toString());
+        MDC.put("UUID", RequestIdGenerator.getRequestId(
+                requestContext.getHeaderString(RequestIdGenerator.REQUEST_ID_HEADER),
+                requestContext.getHeaderString(RequestIdGenerator.TRACEPARENT_HEADER)));
         log.debug("*** start request: {}", MDC.get("UUID"));
+        requestContext.setProperty(ResponseAuditInterceptor.START_NANOS_PROPERTY, System.nanoTime());
 
         log(requestContext);
     }
@@ -52,8 +54,10 @@ public class RequestResponseFilter implements ContainerRequestFilter, ContainerR
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
         // help identifying the processed request on the client side
-        responseContext.getHeaders().add("X-UUID", MDC.get("UUID"));
-        log(responseContext);
+        responseContext.getHeaders().add(RequestIdGenerator.REQUEST_ID_HEADER, MDC.get("UUID"));
+        if (ResponseAuditInterceptor.isEnabled()) {
+            ResponseAuditInterceptor.audit(requestContext, responseContext, MDC.get("UUID"));
+        }
 
         // remove UUID info
         log.debug("*** end request: {}", MDC.get("UUID"));
@@ -76,17 +80,4 @@ public class RequestResponseFilter implements ContainerRequestFilter, ContainerR
         log.debug("AuthenticationScheme: {}, UserPrincipal: {}, UriInfo: {}, Method: {}",
                 authentication, userPrincipal, uriInfo.getMatchedResources(), method);
     }
-
-    /**
-     * Cretae a log output for the outgoing {@code Response}.
-     *
-     * @param responseContext The {@code Response} context to extract log
-     * informations.
-     */
-    private void log(ContainerResponseContext responseContext) {
-        MultivaluedMap<String, String> stringHeaders = responseContext.getStringHeaders();
-        Object entity = responseContext.getEntity();
-
-        log.debug("StringHeaders: {}, Entity: {}", stringHeaders, entity);
-    }
 }
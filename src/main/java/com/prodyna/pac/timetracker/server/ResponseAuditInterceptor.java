@@ -0,0 +1,223 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Provider} for auditing the {@code Response}s. The audit line is
+ * created by the {@link RequestResponseFilter} and logged with the size of the
+ * written entity once the entity is written; the entity itself is not
+ * converted to a {@code String}. The audit can be configured by system
+ * properties:
+ * <ul>
+ * <li>{@value #MODE_PROPERTY}: {@code OFF}, {@code METADATA} (default) for
+ * logging path, status, payload size and elapsed time, or {@code BODY} for
+ * logging the payload of sampled requests, too</li>
+ * <li>{@value #BODY_SAMPLE_RATE_PROPERTY}: the share of requests logged with
+ * payload in {@code BODY} mode, default {@value #DEFAULT_BODY_SAMPLE_RATE}</li>
+ * <li>{@value #MAX_BODY_BYTES_PROPERTY}: the number of payload bytes logged,
+ * default {@value #DEFAULT_MAX_BODY_BYTES}</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+@Provider
+public class ResponseAuditInterceptor implements WriterInterceptor {
+
+    /**
+     * The audit modes.
+     */
+    public enum Mode {
+
+        /**
+         * No audit.
+         */
+        OFF,
+        /**
+         * Log path, status, payload size and elapsed time.
+         */
+        METADATA,
+        /**
+         * Log the payload of sampled requests, too.
+         */
+        BODY
+    }
+
+    /**
+     * System property for the audit mode.
+     */
+    public static final String MODE_PROPERTY = "timetracker.audit.mode";
+
+    /**
+     * System property for the share of requests logged with payload.
+     */
+    public static final String BODY_SAMPLE_RATE_PROPERTY = "timetracker.audit.bodySampleRate";
+
+    /**
+     * System property for the number of payload bytes logged.
+     */
+    public static final String MAX_BODY_BYTES_PROPERTY = "timetracker.audit.maxBodyBytes";
+
+    /**
+     * Default share of requests logged with payload.
+     */
+    public static final String DEFAULT_BODY_SAMPLE_RATE = "0.01";
+
+    /**
+     * Default number of payload bytes logged.
+     */
+    public static final int DEFAULT_MAX_BODY_BYTES = 2048;
+
+    /**
+     * Request property for the start of the request, by
+     * {@link System#nanoTime()}.
+     */
+    static final String START_NANOS_PROPERTY = "timetracker.audit.startNanos";
+
+    /**
+     * Request property for the audit line, set if the entity is still to be
+     * written.
+     */
+    static final String AUDIT_LINE_PROPERTY = "timetracker.audit.line";
+
+    private static final Mode MODE = readMode();
+
+    private static final double BODY_SAMPLE_RATE = readBodySampleRate();
+
+    private static final int MAX_BODY_BYTES = Integer.getInteger(MAX_BODY_BYTES_PROPERTY, DEFAULT_MAX_BODY_BYTES);
+
+    // Glassfisch app server exceptions on startup when injected
+    private static final Logger log = LoggerFactory.getLogger(ResponseAuditInterceptor.class);
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        Object auditLine = context.getProperty(AUDIT_LINE_PROPERTY);
+        if (auditLine == null) {
+            context.proceed();
+            return;
+        }
+
+        boolean withBody = (MODE == Mode.BODY) && (ThreadLocalRandom.current().nextDouble() < BODY_SAMPLE_RATE);
+        OutputStream original = context.getOutputStream();
+        AuditOutputStream audited = new AuditOutputStream(original, withBody ? MAX_BODY_BYTES : 0);
+        context.setOutputStream(audited);
+        try {
+            context.proceed();
+        }
+        finally {
+            context.setOutputStream(original);
+            log.debug("{}, {} bytes in {}ms{}", auditLine, audited.count,
+                    elapsedMillis(context.getProperty(START_NANOS_PROPERTY)), withBody ? audited.getBody() : "");
+        }
+    }
+
+    /**
+     * Check if responses are audited.
+     *
+     * @return {@code true} if the mode is not {@link Mode#OFF} and the level
+     * is enabled.
+     */
+    static boolean isEnabled() {
+        return (MODE != Mode.OFF) && log.isDebugEnabled();
+    }
+
+    /**
+     * Audit a response: if it has an entity, the audit line is stored for
+     * {@link #aroundWriteTo(WriterInterceptorContext)}, else it is logged.
+     *
+     * @param requestContext The {@code Request} context.
+     * @param responseContext The {@code Response} context.
+     * @param requestId The id of the {@code Request}.
+     */
+    static void audit(ContainerRequestContext requestContext, ContainerResponseContext responseContext, String requestId) {
+        String auditLine = String.format("[%s] %s /%s -> %d", requestId, requestContext.getMethod(),
+                requestContext.getUriInfo().getPath(), responseContext.getStatus());
+        if (responseContext.hasEntity()) {
+            requestContext.setProperty(AUDIT_LINE_PROPERTY, auditLine);
+        } else {
+            log.debug("{}, 0 bytes in {}ms", auditLine, elapsedMillis(requestContext.getProperty(START_NANOS_PROPERTY)));
+        }
+    }
+
+    private static long elapsedMillis(Object startNanos) {
+        return (startNanos instanceof Long)
+                ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - (Long) startNanos)
+                : -1;
+    }
+
+    private static Mode readMode() {
+        try {
+            return Mode.valueOf(System.getProperty(MODE_PROPERTY, Mode.METADATA.name()).toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            return Mode.METADATA;
+        }
+    }
+
+    private static double readBodySampleRate() {
+        try {
+            return Double.parseDouble(System.getProperty(BODY_SAMPLE_RATE_PROPERTY, DEFAULT_BODY_SAMPLE_RATE));
+        }
+        catch (NumberFormatException e) {
+            return Double.parseDouble(DEFAULT_BODY_SAMPLE_RATE);
+        }
+    }
+
+    /**
+     * Counts the written bytes and keeps the first bytes of the payload.
+     */
+    private static final class AuditOutputStream extends FilterOutputStream {
+
+        private final int maxBodyBytes;
+        private final ByteArrayOutputStream body;
+        private long count;
+
+        AuditOutputStream(OutputStream out, int maxBodyBytes) {
+            super(out);
+            this.maxBodyBytes = maxBodyBytes;
+            body = (maxBodyBytes > 0) ? new ByteArrayOutputStream(Math.min(maxBodyBytes, 512)) : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if ((body != null) && (count < maxBodyBytes)) {
+                body.write(b);
+            }
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if ((body != null) && (count < maxBodyBytes)) {
+                body.write(b, off, (int) Math.min(len, maxBodyBytes - count));
+            }
+            count += len;
+        }
+
+        String getBody() {
+            String text = new String(body.toByteArray(), StandardCharsets.UTF_8);
+            return (count > maxBodyBytes)
+                    ? ", body: " + text + "... (truncated)"
+                    : ", body: " + text;
+        }
+    }
+}
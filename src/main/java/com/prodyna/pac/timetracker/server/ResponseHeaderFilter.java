@@ -43,6 +43,8 @@ public class ResponseHeaderFilter implements ContainerResponseFilter {
         // https://blogs.oracle.com/theaquarium/entry/supporting_cors_in_jax_rs
         response.getHeaders().putSingle("Access-Control-Allow-Origin", "*");
         response.getHeaders().putSingle("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.getHeaders().putSingle("Access-Control-Allow-Headers", "Authorization, Content-Type");
+        response.getHeaders().putSingle("Access-Control-Allow-Headers", "Authorization, Content-Type, "
+                + RequestIdGenerator.REQUEST_ID_HEADER + ", " + RequestIdGenerator.TRACEPARENT_HEADER);
+        response.getHeaders().putSingle("Access-Control-Expose-Headers", RequestIdGenerator.REQUEST_ID_HEADER);
     }
 }
@@ -0,0 +1,204 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import com.prodyna.pac.timetracker.entity.Employee;
+import com.prodyna.pac.timetracker.entity.Project;
+import com.prodyna.pac.timetracker.entity.Project2Employee;
+import com.prodyna.pac.timetracker.server.service.jpa.NamedQueryRegistry;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.slf4j.Logger;
+
+/**
+ * Server local cache of the {@link Project2Employee} assignments, used for
+ * checking bookings without a database roundtrip. An entry holds the
+ * {@link Project} ids an {@link Employee} is assigned to; it is loaded on first
+ * use and updated when an assignment is created or deleted. As changes on
+ * other servers are not noticed, an entry also expires after a short time. The
+ * number of entries is limited by evicting the least recently used one.
+ * Configuration is done by system properties:
+ * <ul>
+ * <li>{@value #TTL_SECONDS_PROPERTY}: the lifetime of an entry, defaults to
+ * {@value #DEFAULT_TTL_SECONDS} seconds</li>
+ * <li>{@value #MAX_ENTRIES_PROPERTY}: the maximum number of cached
+ * {@link Employee} entries, defaults to {@value #DEFAULT_MAX_ENTRIES}</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AssignmentCache {
+
+    /**
+     * System property for the lifetime of an entry, in seconds.
+     */
+    public static final String TTL_SECONDS_PROPERTY = "timetracker.cache.assignments.ttlSeconds";
+
+    /**
+     * System property for the maximum number of cached {@link Employee}
+     * entries.
+     */
+    public static final String MAX_ENTRIES_PROPERTY = "timetracker.cache.assignments.maxEntries";
+
+    /**
+     * Default lifetime of an entry, in seconds.
+     */
+    public static final int DEFAULT_TTL_SECONDS = 60;
+
+    /**
+     * Default for the maximum number of cached {@link Employee} entries.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private Logger log;
+
+    private long ttlNanos;
+
+    private LruCache<String, Assignments> employees;
+
+    /**
+     * Incremented on every change, to detect changes that were committed while
+     * the assignments of an {@link Employee} were loaded.
+     */
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Guards applying changes against storing freshly loaded assignments.
+     */
+    private final Object modificationLock = new Object();
+
+    /**
+     * Read the configuration.
+     */
+    @PostConstruct
+    public void init() {
+        ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(TTL_SECONDS_PROPERTY, DEFAULT_TTL_SECONDS));
+        employees = new LruCache<>(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+        log.info("Assignment cache ttl: {}s, max entries: {}", TimeUnit.NANOSECONDS.toSeconds(ttlNanos), employees.getMaxEntries());
+    }
+
+    /**
+     * Check if an {@link Employee} is assigned to a {@link Project}.
+     *
+     * @param email The email of the {@link Employee}.
+     * @param projectId The {@code primary key} of the {@link Project}.
+     * @return {@code true} if the assignment exists, else {@code false}.
+     */
+    public boolean isAssigned(String email, String projectId) {
+        Assignments entry = employees.get(email);
+        if ((entry == null) || (System.nanoTime() - entry.loadedNanos > ttlNanos)) {
+            entry = load(email);
+        }
+        return entry.projectIds.contains(projectId);
+    }
+
+    /**
+     * Add a committed assignment.
+     *
+     * @param email The email of the {@link Employee}.
+     * @param projectId The {@code primary key} of the {@link Project}.
+     */
+    public void assigned(String email, String projectId) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            Assignments entry = employees.get(email);
+            if (entry != null) {
+                employees.put(email, entry.with(projectId, true));
+            }
+        }
+    }
+
+    /**
+     * Remove a committed assignment.
+     *
+     * @param email The email of the {@link Employee}.
+     * @param projectId The {@code primary key} of the {@link Project}.
+     */
+    public void unassigned(String email, String projectId) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            Assignments entry = employees.get(email);
+            if (entry != null) {
+                employees.put(email, entry.with(projectId, false));
+            }
+        }
+    }
+
+    /**
+     * Remove all assignments.
+     */
+    public void clear() {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            employees.clear();
+        }
+    }
+
+    /**
+     * Load the assignments of an {@link Employee}. If a change was committed
+     * while loading, the result is returned but not cached, because the change
+     * may be missing in the result.
+     *
+     * @param email The email of the {@link Employee}.
+     * @return The assignments.
+     */
+    private Assignments load(String email) {
+        long modificationsBefore = modificationCount.get();
+
+        List<String> projectIds = em.createNamedQuery(NamedQueryRegistry.PROJECT2EMPLOYEE_PROJECT_IDS, String.class)
+                .setParameter("email", email)
+                .getResultList();
+        Assignments entry = new Assignments(new HashSet<>(projectIds), System.nanoTime());
+
+        synchronized (modificationLock) {
+            if (modificationCount.get() == modificationsBefore) {
+                employees.put(email, entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * The {@link Project} ids of an {@link Employee}; instances are immutable
+     * and replaced on change, so readers need no lock.
+     */
+    private static final class Assignments {
+
+        private final Set<String> projectIds;
+        private final long loadedNanos;
+
+        Assignments(Set<String> projectIds, long loadedNanos) {
+            this.projectIds = Collections.unmodifiableSet(projectIds);
+            this.loadedNanos = loadedNanos;
+        }
+
+        Assignments with(String projectId, boolean assigned) {
+            Set<String> changed = new HashSet<>(projectIds);
+            if (assigned) {
+                changed.add(projectId);
+            } else {
+                changed.remove(projectId);
+            }
+            return new Assignments(changed, loadedNanos);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import com.prodyna.pac.timetracker.Security;
+import com.prodyna.pac.timetracker.entity.Employee;
+import com.prodyna.pac.timetracker.entity.Employee2Role;
+import com.prodyna.pac.timetracker.server.security.BearerTokens;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.slf4j.Logger;
+
+/**
+ * Server local cache of the verified credentials of the {@link Employee}s, used
+ * for {@code BASIC} authentication without a database roundtrip. An entry
+ * holds the stored password hash and the role names of an {@link Employee}; it
+ * expires after a short time and is removed when the password or the roles are
+ * changed. The number of entries is limited by evicting the least recently used
+ * one. Configuration is done by system properties:
+ * <ul>
+ * <li>{@value #TTL_SECONDS_PROPERTY}: the lifetime of an entry, defaults to
+ * {@value #DEFAULT_TTL_SECONDS} seconds</li>
+ * <li>{@value #MAX_ENTRIES_PROPERTY}: the maximum number of cached
+ * {@link Employee} entries, defaults to {@value #DEFAULT_MAX_ENTRIES}</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CredentialCache {
+
+    /**
+     * System property for the lifetime of an entry, in seconds.
+     */
+    public static final String TTL_SECONDS_PROPERTY = "timetracker.cache.credentials.ttlSeconds";
+
+    /**
+     * System property for the maximum number of cached {@link Employee}
+     * entries.
+     */
+    public static final String MAX_ENTRIES_PROPERTY = "timetracker.cache.credentials.maxEntries";
+
+    /**
+     * Default lifetime of an entry, in seconds.
+     */
+    public static final int DEFAULT_TTL_SECONDS = 60;
+
+    /**
+     * Default for the maximum number of cached {@link Employee} entries.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private Logger log;
+
+    private long ttlNanos;
+
+    private LruCache<String, Credentials> credentials;
+
+    /**
+     * Incremented on every invalidation, to detect changes that were committed
+     * while the credentials of an {@link Employee} were loaded.
+     */
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Read the configuration.
+     */
+    @PostConstruct
+    public void init() {
+        ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(TTL_SECONDS_PROPERTY, DEFAULT_TTL_SECONDS));
+        credentials = new LruCache<>(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+        log.info("Credential cache ttl: {}s, max entries: {}", TimeUnit.NANOSECONDS.toSeconds(ttlNanos), credentials.getMaxEntries());
+    }
+
+    /**
+     * Verify the credentials of an {@link Employee}.
+     *
+     * @param email The email of the {@link Employee}.
+     * @param password The provided password, in plain text.
+     * @return The role names of the {@link Employee}, or {@code null} if the
+     * {@link Employee} does not exist, has no password or the password is
+     * wrong.
+     * @throws NoSuchAlgorithmException If the password can not be hashed.
+     */
+    public String[] verify(String email, String password) throws NoSuchAlgorithmException {
+        Credentials entry = credentials.get(email);
+        if ((entry == null) || (System.nanoTime() - entry.loadedNanos > ttlNanos)) {
+            entry = load(email);
+            if (entry == null) {
+                return null;
+            }
+        }
+
+        byte[] providedHash = Security.passwordHashSHA256(password).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(providedHash, entry.passwordHash) ? entry.roleNames.clone() : null;
+    }
+
+    /**
+     * Remove the credentials of an {@link Employee}, to be called after a
+     * change of the password or roles was committed. The bearer tokens issued
+     * before are revoked as well, see {@link BearerTokens#revoke(String)}.
+     *
+     * @param email The email of the {@link Employee}.
+     */
+    public void invalidate(String email) {
+        modificationCount.incrementAndGet();
+        credentials.remove(email);
+        BearerTokens.revoke(email);
+    }
+
+    /**
+     * Remove all credentials.
+     */
+    public void clear() {
+        modificationCount.incrementAndGet();
+        credentials.clear();
+    }
+
+    /**
+     * Load the credentials of an {@link Employee}. They are only cached if no
+     * invalidation happened in the meantime.
+     *
+     * @param email The email of the {@link Employee}.
+     * @return The credentials, {@code null} if the {@link Employee} does not
+     * exist or has no password.
+     */
+    private Credentials load(String email) {
+        long modificationsBefore = modificationCount.get();
+        Employee employee = em.find(Employee.class, email);
+        if ((employee == null) || (employee.getPassword() == null)) {
+            return null;
+        }
+        List<Employee2Role> roles = em.createNamedQuery("Employee2Role.findByEmployee", Employee2Role.class)
+                .setParameter("employee", employee).getResultList();
+        String[] roleNames = new String[roles.size()];
+        for (int i = 0; i < roleNames.length; i++) {
+            roleNames[i] = roles.get(i).getRoleName();
+        }
+
+        Credentials entry = new Credentials(employee.getPassword().getBytes(StandardCharsets.UTF_8), roleNames);
+        if (modificationCount.get() == modificationsBefore) {
+            credentials.put(email, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * The verified credentials of an {@link Employee}.
+     */
+    private static final class Credentials {
+
+        private final byte[] passwordHash;
+        private final String[] roleNames;
+        private final long loadedNanos = System.nanoTime();
+
+        Credentials(byte[] passwordHash, String[] roleNames) {
+            this.passwordHash = passwordHash;
+            this.roleNames = roleNames;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded {@code Map} that evicts the least recently used entry when
+ * the limit is reached. All methods are thread safe.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ * @author apatrikis
+ */
+public class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+
+    private final int maxEntries;
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries The maximum number of entries to keep, must be &gt; 0.
+     */
+    public LruCache(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries must be > 0");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get a value and mark it as recently used.
+     *
+     * @param key The key to look up.
+     * @return The value, or {@code null} if not cached.
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Store a value if the key is not cached yet.
+     *
+     * @param key The key.
+     * @param value The value to store.
+     * @return The already cached value, or the provided value if it was
+     * stored.
+     */
+    public V putIfAbsent(K key, V value) {
+        synchronized (entries) {
+            V existing = entries.putIfAbsent(key, value);
+            return (existing != null) ? existing : value;
+        }
+    }
+
+    /**
+     * Store a value.
+     *
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param key The key.
+     * @return The removed value, or {@code null} if not cached.
+     */
+    public V remove(K key) {
+        synchronized (entries) {
+            return entries.remove(key);
+        }
+    }
+
+    /**
+     * Remove all values.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return The number of cached values.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return The maximum number of cached values.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+}
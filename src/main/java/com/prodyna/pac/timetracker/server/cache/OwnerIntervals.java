@@ -0,0 +1,111 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The booking intervals of a single owner, ordered by start time. Together
+ * with the longest booking duration of the owner, this allows finding
+ * overlaps with a range scan, like an interval tree augmented with the
+ * maximum end time. All methods are thread safe.
+ *
+ * @author apatrikis
+ */
+public class OwnerIntervals {
+
+    /**
+     * A single booking interval.
+     */
+    private static final class Interval {
+
+        private final String id;
+        private final String projectId;
+        private final long start;
+        private final long end;
+
+        Interval(String id, String projectId, long start, long end) {
+            this.id = id;
+            this.projectId = projectId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final NavigableMap<Long, List<Interval>> byStart = new TreeMap<>();
+
+    private final Map<String, Interval> byId = new HashMap<>();
+
+    private long maxDuration;
+
+    /**
+     * Add or replace an interval.
+     *
+     * @param id The {@code primary key} of the booking.
+     * @param projectId The {@code primary key} of the booked project.
+     * @param start The start time in epoch millis.
+     * @param end The end time in epoch millis.
+     */
+    public synchronized void put(String id, String projectId, long start, long end) {
+        remove(id);
+        Interval interval = new Interval(id, projectId, start, end);
+        byId.put(id, interval);
+        byStart.computeIfAbsent(start, k -> new ArrayList<>(1)).add(interval);
+        maxDuration = Math.max(maxDuration, end - start);
+    }
+
+    /**
+     * Remove an interval.
+     *
+     * @param id The {@code primary key} of the booking.
+     */
+    public synchronized void remove(String id) {
+        Interval interval = byId.remove(id);
+        if (interval != null) {
+            List<Interval> sameStart = byStart.get(interval.start);
+            sameStart.remove(interval);
+            if (sameStart.isEmpty()) {
+                byStart.remove(interval.start);
+            }
+        }
+    }
+
+    /**
+     * Find an interval of the same project that overlaps the provided range.
+     * Touching intervals count as overlapping.
+     *
+     * @param projectId The {@code primary key} of the project.
+     * @param skipId The {@code primary key} of the booking to ignore, may be
+     * {@code null}.
+     * @param start The start time in epoch millis.
+     * @param end The end time in epoch millis.
+     * @return The {@code primary key} of the first overlapping booking, or
+     * {@code null} if there is no overlap.
+     */
+    public synchronized String findOverlappingId(String projectId, String skipId, long start, long end) {
+        for (List<Interval> sameStart : byStart.subMap(start - maxDuration, true, end, true).values()) {
+            for (Interval interval : sameStart) {
+                if ((interval.end >= start)
+                        && interval.projectId.equals(projectId)
+                        && !interval.id.equals(skipId)) {
+                    return interval.id;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of intervals.
+     */
+    public synchronized int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import com.prodyna.pac.timetracker.entity.Project;
+
+/**
+ * {@code CDI} event fired when a {@link Project} is updated or deleted. The
+ * observers are notified after the transaction was committed.
+ *
+ * @author apatrikis
+ */
+public class ProjectChangedEvent {
+
+    private final String projectId;
+
+    /**
+     * Constructor.
+     *
+     * @param projectId The {@code primary key} of the changed {@link Project}.
+     */
+    public ProjectChangedEvent(String projectId) {
+        this.projectId = projectId;
+    }
+
+    /**
+     * @return The {@code primary key} of the changed {@link Project}.
+     */
+    public String getProjectId() {
+        return projectId;
+    }
+}
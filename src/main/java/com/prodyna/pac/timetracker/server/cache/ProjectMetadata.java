@@ -0,0 +1,95 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import com.prodyna.pac.timetracker.entity.Project;
+import java.util.Date;
+
+/**
+ * The values of a {@link Project} that are checked when booking, as cached by
+ * {@link ProjectMetadataCache}. Instances are immutable.
+ *
+ * @author apatrikis
+ */
+public class ProjectMetadata {
+
+    private final String projectId;
+    private final boolean locked;
+    private final long startDate;
+    private final long endDate;
+    private final String ownerEmail;
+    private final long loadedNanos = System.nanoTime();
+
+    /**
+     * Constructor.
+     *
+     * @param projectId The {@code primary key} of the {@link Project}.
+     * @param locked {@code true} if the {@link Project} is locked.
+     * @param startDate The start date of the {@link Project}.
+     * @param endDate The end date of the {@link Project}.
+     * @param ownerEmail The email of the manager of the {@link Project}.
+     */
+    public ProjectMetadata(String projectId, boolean locked, Date startDate, Date endDate, String ownerEmail) {
+        this.projectId = projectId;
+        this.locked = locked;
+        this.startDate = startDate.getTime();
+        this.endDate = endDate.getTime();
+        this.ownerEmail = ownerEmail;
+    }
+
+    /**
+     * @return The {@code primary key} of the {@link Project}.
+     */
+    public String getProjectId() {
+        return projectId;
+    }
+
+    /**
+     * @return {@code true} if the {@link Project} is locked.
+     */
+    public boolean isLocked() {
+        return locked;
+    }
+
+    /**
+     * @return The start date of the {@link Project}.
+     */
+    public Date getStartDate() {
+        return new Date(startDate);
+    }
+
+    /**
+     * @return The end date of the {@link Project}.
+     */
+    public Date getEndDate() {
+        return new Date(endDate);
+    }
+
+    /**
+     * @return The email of the manager of the {@link Project}.
+     */
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    /**
+     * Check if a time range is within the dates of the {@link Project}.
+     *
+     * @param startTime The begin of the time range.
+     * @param endTime The end of the time range.
+     * @return {@code true} if the range is within the dates, else
+     * {@code false}.
+     */
+    public boolean contains(Date startTime, Date endTime) {
+        return (startTime.getTime() >= startDate) && (endTime.getTime() <= endDate);
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} when the values were loaded.
+     */
+    long getLoadedNanos() {
+        return loadedNanos;
+    }
+}
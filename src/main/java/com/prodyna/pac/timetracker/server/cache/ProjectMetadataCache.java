@@ -0,0 +1,163 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import com.prodyna.pac.timetracker.entity.Project;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.slf4j.Logger;
+
+/**
+ * Server local read-through cache of the {@link ProjectMetadata}, used for
+ * checking bookings without a database roundtrip. An entry is loaded on first
+ * use and removed when a {@link ProjectChangedEvent} is committed; as changes
+ * on other servers are not noticed, an entry also expires after a short time.
+ * The number of entries is limited by evicting the least recently used one.
+ * Configuration is done by system properties:
+ * <ul>
+ * <li>{@value #TTL_SECONDS_PROPERTY}: the lifetime of an entry, defaults to
+ * {@value #DEFAULT_TTL_SECONDS} seconds</li>
+ * <li>{@value #MAX_ENTRIES_PROPERTY}: the maximum number of cached
+ * {@link Project} entries, defaults to {@value #DEFAULT_MAX_ENTRIES}</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ProjectMetadataCache {
+
+    /**
+     * System property for the lifetime of an entry, in seconds.
+     */
+    public static final String TTL_SECONDS_PROPERTY = "timetracker.cache.projects.ttlSeconds";
+
+    /**
+     * System property for the maximum number of cached {@link Project}
+     * entries.
+     */
+    public static final String MAX_ENTRIES_PROPERTY = "timetracker.cache.projects.maxEntries";
+
+    /**
+     * Default lifetime of an entry, in seconds.
+     */
+    public static final int DEFAULT_TTL_SECONDS = 60;
+
+    /**
+     * Default for the maximum number of cached {@link Project} entries.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private static final String LOAD_QUERY = "select p.locked, p.startDate, p.endDate, p.owner.email"
+            + " from Project p where p.projectId = :projectId";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private Logger log;
+
+    private long ttlNanos;
+
+    private LruCache<String, ProjectMetadata> projects;
+
+    /**
+     * Incremented on every change, to detect changes that were committed while
+     * a {@link Project} was loaded.
+     */
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Guards applying changes against storing freshly loaded values.
+     */
+    private final Object modificationLock = new Object();
+
+    /**
+     * Read the configuration.
+     */
+    @PostConstruct
+    public void init() {
+        ttlNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger(TTL_SECONDS_PROPERTY, DEFAULT_TTL_SECONDS));
+        projects = new LruCache<>(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+        log.info("Project metadata cache ttl: {}s, max entries: {}", TimeUnit.NANOSECONDS.toSeconds(ttlNanos), projects.getMaxEntries());
+    }
+
+    /**
+     * Get the values of a {@link Project}.
+     *
+     * @param projectId The {@code primary key} of the {@link Project}.
+     * @return The values, or {@code null} if the {@link Project} does not
+     * exist.
+     */
+    public ProjectMetadata get(String projectId) {
+        ProjectMetadata entry = projects.get(projectId);
+        if ((entry == null) || (System.nanoTime() - entry.getLoadedNanos() > ttlNanos)) {
+            entry = load(projectId);
+        }
+        return entry;
+    }
+
+    /**
+     * Remove the values of a changed {@link Project}, called after the change
+     * was committed.
+     *
+     * @param event The event.
+     */
+    public void projectChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProjectChangedEvent event) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            projects.remove(event.getProjectId());
+        }
+    }
+
+    /**
+     * Remove all values.
+     */
+    public void clear() {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            projects.clear();
+        }
+    }
+
+    /**
+     * Load the values of a {@link Project}. If a change was committed while
+     * loading, the result is returned but not cached, because the change may be
+     * missing in the result.
+     *
+     * @param projectId The {@code primary key} of the {@link Project}.
+     * @return The values, {@code null} if the {@link Project} does not exist.
+     */
+    private ProjectMetadata load(String projectId) {
+        long modificationsBefore = modificationCount.get();
+
+        List<Object[]> rows = em.createQuery(LOAD_QUERY, Object[].class)
+                .setParameter("projectId", projectId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        ProjectMetadata entry = new ProjectMetadata(projectId, (Boolean) row[0], (Date) row[1], (Date) row[2], (String) row[3]);
+
+        synchronized (modificationLock) {
+            if (modificationCount.get() == modificationsBefore) {
+                projects.put(projectId, entry);
+            }
+        }
+        return entry;
+    }
+}
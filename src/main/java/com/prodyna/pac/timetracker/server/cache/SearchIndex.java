@@ -0,0 +1,258 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import com.prodyna.pac.timetracker.entity.Employee;
+import com.prodyna.pac.timetracker.entity.Project;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.slf4j.Logger;
+
+/**
+ * Server local search index of the {@link Employee}s and {@link Project}s, used
+ * for substring search without loading all entities from the database. The
+ * {@link Employee}s are indexed by first name, last name and email, the
+ * {@link Project}s by project id, title and description; see
+ * {@link TrigramIndex} for the ranking. Each index is loaded on first use.
+ * <p/>
+ * The index is disabled by default. It is only consistent if all changes are
+ * done by this server, so it must not be enabled for a cluster or when the
+ * database is changed by other means. Configuration is done by system
+ * properties:
+ * <ul>
+ * <li>{@value #ENABLED_PROPERTY}: {@code true} to enable the index</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class SearchIndex {
+
+    /**
+     * System property for enabling the index.
+     */
+    public static final String ENABLED_PROPERTY = "timetracker.cache.search.enabled";
+
+    private static final String EMPLOYEE_QUERY = "select e.email, e.firstName, e.lastName, e.email from Employee e";
+
+    private static final String PROJECT_QUERY = "select p.projectId, p.projectId, p.title, p.description from Project p";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private Logger log;
+
+    private volatile boolean enabled;
+
+    private volatile TrigramIndex employees;
+
+    private volatile TrigramIndex projects;
+
+    /**
+     * Incremented on every change, to detect changes that were committed while
+     * an index was loaded.
+     */
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Guards applying changes against storing a freshly loaded index.
+     */
+    private final Object modificationLock = new Object();
+
+    /**
+     * Read the configuration.
+     */
+    @PostConstruct
+    public void init() {
+        enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+        log.info("Search index enabled: {}", enabled);
+    }
+
+    /**
+     * @return {@code true} if the index is enabled, else {@code false}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the index at runtime, e. g. for tests. The indexes
+     * are removed in both cases and loaded again on next use.
+     *
+     * @param enabled {@code true} to enable the index, else {@code false}.
+     */
+    public void setEnabled(boolean enabled) {
+        clear();
+        this.enabled = enabled;
+        log.info("Search index enabled: {}", enabled);
+    }
+
+    /**
+     * Find the {@link Employee}s with a first name, last name or email that
+     * contains the pattern, ignoring case.
+     *
+     * @param searchPattern The pattern to search for.
+     * @return The emails of the matching {@link Employee}s, best match first.
+     */
+    public List<String> findEmployees(String searchPattern) {
+        TrigramIndex index = employees;
+        if (index == null) {
+            index = loadEmployees();
+        }
+        return index.search(searchPattern);
+    }
+
+    /**
+     * Find the {@link Project}s with a project id, title or description that
+     * contains the pattern, ignoring case.
+     *
+     * @param searchPattern The pattern to search for.
+     * @return The project ids of the matching {@link Project}s, best match
+     * first.
+     */
+    public List<String> findProjects(String searchPattern) {
+        TrigramIndex index = projects;
+        if (index == null) {
+            index = loadProjects();
+        }
+        return index.search(searchPattern);
+    }
+
+    /**
+     * Add or replace a committed {@link Employee}.
+     *
+     * @param employee The {@link Employee}.
+     */
+    public void employeeSaved(Employee employee) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            if (employees != null) {
+                employees.put(employee.getEmail(), employee.getFirstName(), employee.getLastName(), employee.getEmail());
+            }
+        }
+    }
+
+    /**
+     * Remove a committed {@link Employee}.
+     *
+     * @param email The email of the {@link Employee}.
+     */
+    public void employeeRemoved(String email) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            if (employees != null) {
+                employees.remove(email);
+            }
+        }
+    }
+
+    /**
+     * Add or replace a committed {@link Project}.
+     *
+     * @param project The {@link Project}.
+     */
+    public void projectSaved(Project project) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            if (projects != null) {
+                projects.put(project.getProjectId(), project.getProjectId(), project.getTitle(), project.getDescription());
+            }
+        }
+    }
+
+    /**
+     * Remove a committed {@link Project}.
+     *
+     * @param projectId The project id of the {@link Project}.
+     */
+    public void projectRemoved(String projectId) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            if (projects != null) {
+                projects.remove(projectId);
+            }
+        }
+    }
+
+    /**
+     * Remove both indexes, they are loaded again on next use.
+     */
+    public void clear() {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            employees = null;
+            projects = null;
+        }
+    }
+
+    /**
+     * Load the {@link Employee} index. If a change was committed while
+     * loading, the result is returned but not kept, because the change may be
+     * missing in the result.
+     *
+     * @return The index.
+     */
+    private TrigramIndex loadEmployees() {
+        long modificationsBefore = modificationCount.get();
+        TrigramIndex index = load(EMPLOYEE_QUERY);
+        log.debug("Loaded {} Employees into the search index", index.size());
+
+        synchronized (modificationLock) {
+            if (modificationCount.get() == modificationsBefore) {
+                if (employees == null) {
+                    employees = index;
+                }
+                index = employees;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Load the {@link Project} index, see {@link #loadEmployees()}.
+     *
+     * @return The index.
+     */
+    private TrigramIndex loadProjects() {
+        long modificationsBefore = modificationCount.get();
+        TrigramIndex index = load(PROJECT_QUERY);
+        log.debug("Loaded {} Projects into the search index", index.size());
+
+        synchronized (modificationLock) {
+            if (modificationCount.get() == modificationsBefore) {
+                if (projects == null) {
+                    projects = index;
+                }
+                index = projects;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Build an index of the rows of a query; the first column is the key, the
+     * following columns are indexed.
+     */
+    private TrigramIndex load(String query) {
+        TrigramIndex index = new TrigramIndex();
+        for (Object[] row : em.createQuery(query, Object[].class).getResultList()) {
+            String[] fields = new String[row.length - 1];
+            for (int i = 1; i < row.length; i++) {
+                fields[i - 1] = (String) row[i];
+            }
+            index.put((String) row[0], fields);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import com.prodyna.pac.timetracker.entity.Employee;
+import com.prodyna.pac.timetracker.entity.TimeRecord;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.slf4j.Logger;
+
+/**
+ * Server local cache of the booking intervals per {@link Employee}, used for
+ * checking {@link TimeRecord} overlaps without a database roundtrip. The
+ * intervals of an {@link Employee} are loaded on first use, the number of
+ * cached {@link Employee} entries is limited by evicting the least recently
+ * used one.
+ * <p/>
+ * The cache is disabled by default. It is only consistent if all changes are
+ * done by this server, so it must not be enabled for a cluster or when the
+ * database is changed by other means. Configuration is done by system
+ * properties:
+ * <ul>
+ * <li>{@value #ENABLED_PROPERTY}: {@code true} to enable the cache</li>
+ * <li>{@value #MAX_OWNERS_PROPERTY}: the maximum number of cached
+ * {@link Employee} entries, defaults to {@value #DEFAULT_MAX_OWNERS}</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TimeRecordIntervalCache {
+
+    /**
+     * System property for enabling the cache.
+     */
+    public static final String ENABLED_PROPERTY = "timetracker.cache.intervals.enabled";
+
+    /**
+     * System property for the maximum number of cached {@link Employee}
+     * entries.
+     */
+    public static final String MAX_OWNERS_PROPERTY = "timetracker.cache.intervals.maxOwners";
+
+    /**
+     * Default for the maximum number of cached {@link Employee} entries.
+     */
+    public static final int DEFAULT_MAX_OWNERS = 1000;
+
+    private static final String LOAD_QUERY = "select tr.id, tr.project.projectId, tr.startTime, tr.endTime"
+            + " from TimeRecord tr where tr.owner.email = :email";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private Logger log;
+
+    private boolean enabled;
+
+    private LruCache<String, OwnerIntervals> owners;
+
+    /**
+     * Incremented on every change, to detect changes that were committed while
+     * the intervals of an {@link Employee} were loaded.
+     */
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Guards applying changes against storing freshly loaded intervals.
+     */
+    private final Object modificationLock = new Object();
+
+    /**
+     * Read the configuration.
+     */
+    @PostConstruct
+    public void init() {
+        enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+        owners = new LruCache<>(Integer.getInteger(MAX_OWNERS_PROPERTY, DEFAULT_MAX_OWNERS));
+        log.info("TimeRecord interval cache enabled: {}, max owners: {}", enabled, owners.getMaxEntries());
+    }
+
+    /**
+     * @return {@code true} if the cache is enabled, else {@code false}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Find a {@link TimeRecord} of the same owner and project that overlaps
+     * with the provided {@link TimeRecord}. The provided record itself is
+     * skipped, which is needed for updates.
+     *
+     * @param timeRecord The {@link TimeRecord} to check.
+     * @return The {@code primary key} of the first overlapping entry, or
+     * {@code null} if there is no overlap.
+     */
+    public String findOverlappingId(TimeRecord timeRecord) {
+        String ownerEmail = timeRecord.getOwner().getEmail();
+        OwnerIntervals intervals = owners.get(ownerEmail);
+        if (intervals == null) {
+            intervals = load(ownerEmail);
+        }
+        return intervals.findOverlappingId(timeRecord.getProject().getProjectId(), timeRecord.getId(),
+                timeRecord.getStartTime().getTime(), timeRecord.getEndTime().getTime());
+    }
+
+    /**
+     * Add or replace a committed {@link TimeRecord}.
+     *
+     * @param timeRecord The {@link TimeRecord}.
+     */
+    public void saved(TimeRecord timeRecord) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            OwnerIntervals intervals = owners.get(timeRecord.getOwner().getEmail());
+            if (intervals != null) {
+                intervals.put(timeRecord.getId(), timeRecord.getProject().getProjectId(),
+                        timeRecord.getStartTime().getTime(), timeRecord.getEndTime().getTime());
+            }
+        }
+    }
+
+    /**
+     * Remove a committed {@link TimeRecord}.
+     *
+     * @param ownerEmail The email of the owner.
+     * @param id The {@code primary key} of the {@link TimeRecord}.
+     */
+    public void removed(String ownerEmail, String id) {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            OwnerIntervals intervals = owners.get(ownerEmail);
+            if (intervals != null) {
+                intervals.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Remove all cached intervals.
+     */
+    public void clear() {
+        synchronized (modificationLock) {
+            modificationCount.incrementAndGet();
+            owners.clear();
+        }
+    }
+
+    /**
+     * Load the intervals of an {@link Employee}. If a change was committed
+     * while loading, the result is returned but not cached, because the change
+     * may be missing in the result.
+     *
+     * @param ownerEmail The email of the owner.
+     * @return The intervals.
+     */
+    private OwnerIntervals load(String ownerEmail) {
+        long modificationsBefore = modificationCount.get();
+
+        List<Object[]> rows = em.createQuery(LOAD_QUERY, Object[].class)
+                .setParameter("email", ownerEmail)
+                .getResultList();
+        OwnerIntervals intervals = new OwnerIntervals();
+        for (Object[] row : rows) {
+            intervals.put((String) row[0], (String) row[1], ((Date) row[2]).getTime(), ((Date) row[3]).getTime());
+        }
+        log.debug("Loaded {} TimeRecord intervals for [{}]", intervals.size(), ownerEmail);
+
+        synchronized (modificationLock) {
+            if (modificationCount.get() == modificationsBefore) {
+                intervals = owners.putIfAbsent(ownerEmail, intervals);
+            }
+        }
+        return intervals;
+    }
+}
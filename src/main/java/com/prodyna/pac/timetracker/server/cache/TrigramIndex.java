@@ -0,0 +1,242 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A case insensitive substring index over some text fields per entry. Each
+ * entry is split into trigrams (all substrings of length 3), a search only
+ * checks the entries that contain all trigrams of the search pattern. Patterns
+ * shorter than 3 characters are checked against all entries.
+ * <p/>
+ * The results are ranked: a field that equals the pattern ranks before a field
+ * that starts with the pattern, which ranks before a field that contains it;
+ * for the same kind of match, earlier fields rank first. The index is thread
+ * safe.
+ *
+ * @author apatrikis
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    /**
+     * The lower case fields per entry key.
+     */
+    private final Map<String, String[]> entries = new HashMap<>();
+
+    /**
+     * The entry keys per trigram.
+     */
+    private final Map<String, Set<String>> postings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace an entry.
+     *
+     * @param key The key of the entry.
+     * @param fields The text fields to index, {@code null} fields are indexed
+     * as empty text.
+     */
+    public void put(String key, String... fields) {
+        String[] lowerFields = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            lowerFields[i] = (fields[i] != null) ? fields[i].toLowerCase(Locale.ROOT) : "";
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeEntry(key);
+            entries.put(key, lowerFields);
+            for (String gram : trigrams(lowerFields)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an entry.
+     *
+     * @param key The key of the entry.
+     */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(key);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the entries with a field that contains the pattern, ignoring case.
+     *
+     * @param pattern The pattern to search for.
+     * @return The keys of the matching entries, best match first.
+     */
+    public List<String> search(String pattern) {
+        String lowerPattern = pattern.toLowerCase(Locale.ROOT);
+        List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (String key : candidates(lowerPattern)) {
+                int score = score(entries.get(key), lowerPattern);
+                if (score > 0) {
+                    matches.add(new Match(key, score));
+                }
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        Collections.sort(matches);
+        List<String> keys = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            keys.add(match.key);
+        }
+        return keys;
+    }
+
+    /**
+     * Get the keys of the entries that contain all trigrams of the pattern;
+     * the caller must hold the read lock.
+     */
+    private Set<String> candidates(String lowerPattern) {
+        if (lowerPattern.length() < GRAM) {
+            return entries.keySet();
+        }
+
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : trigrams(new String[]{lowerPattern})) {
+            Set<String> keys = postings.get(gram);
+            if (keys == null) {
+                return Collections.emptySet();
+            }
+            lists.add(keys);
+        }
+        // intersect, starting with the shortest list
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<String> result = new HashSet<>(lists.get(0));
+        for (int i = 1; (i < lists.size()) && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Rank an entry, {@code 0} if no field contains the pattern.
+     */
+    private static int score(String[] fields, String lowerPattern) {
+        int best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            int kind;
+            if (fields[i].equals(lowerPattern)) {
+                kind = 3;
+            } else if (fields[i].startsWith(lowerPattern)) {
+                kind = 2;
+            } else if (fields[i].contains(lowerPattern)) {
+                kind = 1;
+            } else {
+                continue;
+            }
+            best = Math.max(best, (kind * 100) - i);
+        }
+        return best;
+    }
+
+    /**
+     * Remove an entry; the caller must hold the write lock.
+     */
+    private void removeEntry(String key) {
+        String[] fields = entries.remove(key);
+        if (fields != null) {
+            for (String gram : trigrams(fields)) {
+                Set<String> keys = postings.get(gram);
+                if (keys != null) {
+                    keys.remove(key);
+                    if (keys.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrams(String[] fields) {
+        Set<String> grams = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                grams.add(field.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * A ranked search result.
+     */
+    private static final class Match implements Comparable<Match> {
+
+        private final String key;
+        private final int score;
+
+        Match(String key, int score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            int byScore = Integer.compare(other.score, score);
+            return (byScore != 0) ? byScore : key.compareTo(other.key);
+        }
+    }
+}
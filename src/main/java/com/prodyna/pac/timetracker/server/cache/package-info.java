@@ -0,0 +1,8 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+/**
+ * Package with classes that provide optional, server local caches.
+ */
+package com.prodyna.pac.timetracker.server.cache;
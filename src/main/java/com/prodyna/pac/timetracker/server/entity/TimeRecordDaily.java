@@ -0,0 +1,154 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.entity;
+
+import com.prodyna.pac.timetracker.entity.TimeRecord;
+import com.prodyna.pac.timetracker.entity.TimeRecordStatus;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * The summed up net booking time of all {@link TimeRecord}s of one owner,
+ * project, day and {@link TimeRecordStatus}. The rows are maintained together
+ * with the {@link TimeRecord}s, so reports only need to read one row per day.
+ * <p/>
+ * This entity is not cached, as it is changed by bulk updates.
+ *
+ * @author apatrikis
+ */
+@Entity
+@Table(name = "TIMERECORD_DAILY")
+@IdClass(TimeRecordDaily.Key.class)
+@Cacheable(false)
+public class TimeRecordDaily implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The composite {@code primary key} of {@link TimeRecordDaily}.
+     */
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String ownerEmail;
+        private String projectId;
+        private Date bookingDay;
+        private int recordStatus;
+
+        /**
+         * Default constructor, required by {@code JPA}.
+         */
+        public Key() {
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ownerEmail, projectId, bookingDay, recordStatus);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return Objects.equals(ownerEmail, other.ownerEmail)
+                    && Objects.equals(projectId, other.projectId)
+                    && Objects.equals(bookingDay, other.bookingDay)
+                    && (recordStatus == other.recordStatus);
+        }
+    }
+
+    @Id
+    @Column(name = "OWNER_EMAIL", length = 140)
+    private String ownerEmail;
+
+    @Id
+    @Column(name = "PROJECT_PROJECTID", length = 50)
+    private String projectId;
+
+    @Id
+    @Temporal(TemporalType.DATE)
+    @Column(name = "BOOKINGDAY")
+    private Date bookingDay;
+
+    @Id
+    @Column(name = "RECORDSTATUS")
+    private int recordStatus;
+
+    @Column(name = "NETMINUTES", nullable = false)
+    private long netMinutes;
+
+    @Column(name = "RECORDCOUNT", nullable = false)
+    private int recordCount;
+
+    /**
+     * Default constructor, required by {@code JPA}.
+     */
+    public TimeRecordDaily() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param ownerEmail The {@code primary key} of the owner.
+     * @param projectId The {@code primary key} of the project.
+     * @param bookingDay The day of the booking start.
+     * @param recordStatus The status of the summed up {@link TimeRecord}s.
+     * @param netMinutes The summed up net minutes.
+     * @param recordCount The number of summed up {@link TimeRecord}s.
+     */
+    public TimeRecordDaily(String ownerEmail, String projectId, Date bookingDay, TimeRecordStatus recordStatus, long netMinutes, int recordCount) {
+        this.ownerEmail = ownerEmail;
+        this.projectId = projectId;
+        this.bookingDay = bookingDay;
+        this.recordStatus = recordStatus.ordinal();
+        this.netMinutes = netMinutes;
+        this.recordCount = recordCount;
+    }
+
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public Date getBookingDay() {
+        return bookingDay;
+    }
+
+    public TimeRecordStatus getRecordStatus() {
+        return TimeRecordStatus.values()[recordStatus];
+    }
+
+    public long getNetMinutes() {
+        return netMinutes;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeRecordDaily{" + "ownerEmail=" + ownerEmail + ", projectId=" + projectId + ", bookingDay=" + bookingDay
+                + ", recordStatus=" + recordStatus + ", netMinutes=" + netMinutes + ", recordCount=" + recordCount + '}';
+    }
+}
@@ -0,0 +1,9 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+/**
+ * Package with {@code Entity} classes that are only used by the server, like
+ * pre-aggregated reporting values.
+ */
+package com.prodyna.pac.timetracker.server.entity;
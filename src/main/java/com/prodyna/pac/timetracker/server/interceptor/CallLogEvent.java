@@ -0,0 +1,117 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.interceptor;
+
+import org.slf4j.MDC;
+
+/**
+ * A structured log event of one intercepted call. The event is created by the
+ * calling thread, which captures the thread name and the request id of the
+ * {@link MDC}, as the {@link CallLogWriter} writes the event by another
+ * thread. The parameters are kept by reference, in a shallow copy of the
+ * array: the line, including the {@code toString()} of the parameters, is only
+ * formatted by {@link #formatTo(StringBuilder)} on the writer thread.
+ *
+ * @author apatrikis
+ */
+public class CallLogEvent {
+
+    private final String caller;
+    private final String threadName;
+    private final String requestId;
+    private final Class<?> targetClass;
+    private final String method;
+    private final Object[] parameters;
+    private final long elapsedNanos;
+    private final Exception exception;
+
+    /**
+     * Constructor, to be called by the calling thread.
+     *
+     * @param caller The name of the calling user.
+     * @param targetClass The class of the called object.
+     * @param method The name of the called method.
+     * @param parameters The parameters of the call, may be {@code null}.
+     * @param elapsedNanos The elapsed execution time, in nanoseconds.
+     * @param exception The exception of a failed call, {@code null} for a
+     * successful call.
+     */
+    public CallLogEvent(String caller, Class<?> targetClass, String method, Object[] parameters, long elapsedNanos, Exception exception) {
+        this.caller = caller;
+        this.threadName = Thread.currentThread().getName();
+        this.requestId = MDC.get("UUID");
+        this.targetClass = targetClass;
+        this.method = method;
+        this.parameters = (parameters != null) ? parameters.clone() : null;
+        this.elapsedNanos = elapsedNanos;
+        this.exception = exception;
+    }
+
+    /**
+     * @return The name of the calling thread.
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * @return The request id of the call, {@code null} if none was set.
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Check if the call failed.
+     *
+     * @return {@code true} if the call ended with an exception.
+     */
+    public boolean isFailed() {
+        return exception != null;
+    }
+
+    /**
+     * Format the event.
+     *
+     * @param sb The buffer to append the formatted event to.
+     * @return The buffer.
+     */
+    public StringBuilder formatTo(StringBuilder sb) {
+        sb.append("thread [").append(threadName)
+                .append("] user [").append(caller)
+                .append("] invoked [").append(targetClass.getName())
+                .append("] with method [").append(method)
+                .append("] and parameters: [");
+        formatParameters(sb);
+        sb.append("]");
+
+        if (exception == null) {
+            sb.append(" in ").append(elapsedNanos / 1000000).append("ms");
+        } else {
+            sb.append(" failed: ").append(exception.getClass().getSimpleName())
+                    .append(": ").append(exception.getMessage());
+        }
+        return sb;
+    }
+
+    private void formatParameters(StringBuilder sb) {
+        if (parameters == null) {
+            sb.append("<null>");
+            return;
+        }
+        String separator = "";
+        for (Object obj : parameters) {
+            if (obj != null) {
+                sb.append(separator).append(obj.toString());
+                separator = ", ";
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return formatTo(new StringBuilder()).toString();
+    }
+}
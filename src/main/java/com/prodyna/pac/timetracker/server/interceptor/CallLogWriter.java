@@ -0,0 +1,216 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.interceptor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Writes the {@link CallLogEvent}s of the
+ * {@link InterfaceUsageLoggingInterceptor} in the background. The events are
+ * passed through a bounded queue: if the queue is full, successful calls are
+ * dropped and counted, failed calls are logged by the calling thread.
+ * Successful calls are only logged for a sample; failed calls are always
+ * logged.
+ * <p/>
+ * The writer runs for the whole lifetime of the application, so it uses an own
+ * daemon thread of the {@link ManagedThreadFactory} instead of blocking a
+ * thread of the managed executor pool; it is stopped by {@link #shutdown()}.
+ * Each line contains the thread name of the calling thread and is written with
+ * its request id, so the lines can still be correlated with the request. The behavior
+ * can be configured by system properties:
+ * <ul>
+ * <li>{@value #QUEUE_SIZE_PROPERTY}: the size of the queue, default
+ * {@value #DEFAULT_QUEUE_SIZE}</li>
+ * <li>{@value #SAMPLE_RATE_PROPERTY}: the share of successful calls to log,
+ * between {@code 0} and {@code 1}, default {@code 1}</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+@Startup
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CallLogWriter {
+
+    /**
+     * System property for the size of the queue.
+     */
+    public static final String QUEUE_SIZE_PROPERTY = "timetracker.calllog.queueSize";
+
+    /**
+     * System property for the share of successful calls to log.
+     */
+    public static final String SAMPLE_RATE_PROPERTY = "timetracker.calllog.sampleRate";
+
+    /**
+     * Default size of the queue.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    /**
+     * Maximum time to wait for the writer thread on shutdown, in milliseconds.
+     */
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    /**
+     * The events are logged under the category of the interceptor.
+     */
+    private static final Logger CALL_LOG = LoggerFactory.getLogger(InterfaceUsageLoggingInterceptor.class);
+
+    @Inject
+    private Logger log;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private BlockingQueue<CallLogEvent> queue;
+    private double sampleRate;
+    private final LongAdder droppedEvents = new LongAdder();
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Read the configuration and start the background writer.
+     */
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE)));
+        try {
+            sampleRate = Double.parseDouble(System.getProperty(SAMPLE_RATE_PROPERTY, "1"));
+        }
+        catch (NumberFormatException e) {
+            log.warn("Invalid value for {}: {}", SAMPLE_RATE_PROPERTY, e.getMessage());
+            sampleRate = 1;
+        }
+        running = true;
+        writer = threadFactory.newThread(this::drain);
+        writer.setName("call-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the background writer and log the remaining events.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(SHUTDOWN_WAIT_MILLIS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        StringBuilder sb = new StringBuilder();
+        CallLogEvent event;
+        while ((event = queue.poll()) != null) {
+            write(event, sb);
+        }
+    }
+
+    /**
+     * Decide if a successful call should be logged, before the event is
+     * created.
+     *
+     * @return {@code true} if the level is enabled and the call is part of
+     * the sample.
+     */
+    public boolean isSampled() {
+        return CALL_LOG.isInfoEnabled()
+                && ((sampleRate >= 1) || (ThreadLocalRandom.current().nextDouble() < sampleRate));
+    }
+
+    /**
+     * Decide if a failed call should be logged, before the event is created.
+     *
+     * @return {@code true} if the level is enabled.
+     */
+    public boolean isFailureLogged() {
+        return CALL_LOG.isErrorEnabled();
+    }
+
+    /**
+     * Queue an event for the background writer.
+     *
+     * @param event The event to log.
+     */
+    public void add(CallLogEvent event) {
+        if (!queue.offer(event)) {
+            if (event.isFailed()) {
+                write(event, new StringBuilder());
+            } else {
+                droppedEvents.increment();
+            }
+        }
+    }
+
+    /**
+     * The loop of the background writer, reusing one buffer for formatting.
+     */
+    private void drain() {
+        StringBuilder sb = new StringBuilder(512);
+        while (running) {
+            try {
+                CallLogEvent event = queue.poll(1, TimeUnit.SECONDS);
+                if (event != null) {
+                    write(event, sb);
+                }
+                long dropped = droppedEvents.sumThenReset();
+                if (dropped > 0) {
+                    log.warn("Dropped {} call log events, the queue was full", dropped);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (RuntimeException e) {
+                log.warn("Could not write call log event: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write an event with the request id of the calling thread.
+     */
+    private void write(CallLogEvent event, StringBuilder sb) {
+        sb.setLength(0);
+        String requestId = MDC.get("UUID");
+        try {
+            if (event.getRequestId() != null) {
+                MDC.put("UUID", event.getRequestId());
+            }
+            if (event.isFailed()) {
+                CALL_LOG.error(event.formatTo(sb).toString());
+            } else {
+                CALL_LOG.info(event.formatTo(sb).toString());
+            }
+        }
+        finally {
+            if (requestId != null) {
+                MDC.put("UUID", requestId);
+            } else {
+                MDC.remove("UUID");
+            }
+        }
+    }
+}
@@ -4,22 +4,29 @@
  */
 package com.prodyna.pac.timetracker.server.interceptor;
 
-import com.prodyna.pac.timetracker.StopWatch;
 import com.prodyna.pac.timetracker.server.rest.AbstractREST;
+import com.prodyna.pac.timetracker.server.tracing.Span;
+import com.prodyna.pac.timetracker.server.tracing.Tracer;
+import java.lang.reflect.Method;
 import javax.annotation.Resource;
 import javax.ejb.SessionContext;
 import javax.inject.Inject;
 import javax.interceptor.AroundInvoke;
 import javax.interceptor.InvocationContext;
-import org.slf4j.Logger;
 
 /**
  * An {@code Interceptor} that is used for logging method calls:
  * <ul>
  * <li>log informations about the call, like class, method and parameters</li>
  * <li>log an successful or failed execution</li>
- * <li>log the elapsed time of an successful execution</li>
+ * <li>log the elapsed time of an successful execution, measured in
+ * nanoseconds</li>
  * </ul>
+ * The log lines are written in the background by the {@link CallLogWriter}:
+ * the call is captured as a {@link CallLogEvent}, which is only created if it
+ * will be logged and only formatted into a line by the writer. Each call is traced by
+ * {@link Tracer}, so nested phases can be timed by child {@link Span}s.
+ * <p/>
  * The interceptor may be used for any class by using a {@code Annotation} at
  * class level:
  * <code>@Interceptors(InterfaceUsageLoggingInterceptor.class) public class MyClass ...</code>
@@ -32,7 +39,7 @@ public class InterfaceUsageLoggingInterceptor {
     private SessionContext sCtx;
 
     @Inject
-    private Logger log;
+    private CallLogWriter callLogWriter;
 
     /**
      * {@code Intercept} any method call for a given class.
@@ -46,89 +53,96 @@ public class InterfaceUsageLoggingInterceptor {
      */
     @AroundInvoke
     public Object intercept(final InvocationContext iCtx) throws Exception {
-        // log method call
-        log.info(createCallInfo(sCtx, iCtx));
-
-        try {
+        boolean sampled = callLogWriter.isSampled();
+        long start = System.nanoTime();
+        try (Span span = Tracer.startTrace(iCtx.getTarget().getClass().getSimpleName() + "." + iCtx.getMethod().getName())) {
             // exceute
-            StopWatch sw = new StopWatch().start();
             Object retVal = iCtx.proceed();
-            sw.stop();
+            long elapsedNanos = System.nanoTime() - start;
 
             // log and monitor success
-            addSuccessfulCall(iCtx, sw.getElapsedTime());
+            addSuccessfulCall(iCtx, elapsedNanos);
+            if (sampled) {
+                callLogWriter.add(createCallLogEvent(iCtx, elapsedNanos, null));
+            }
             return retVal;
         }
         catch (Exception e) {
             addFailedCall(iCtx, e);
+            if (callLogWriter.isFailureLogged()) {
+                callLogWriter.add(createCallLogEvent(iCtx, System.nanoTime() - start, e));
+            }
             throw e;
         }
     }
 
     /**
-     * Create a {@link String} that contains some interesting values to be
-     * logged.
+     * Create the log event of a call. The parameters are captured as text by
+     * the calling thread, the line is formatted by the writer.
      *
-     * @param sCtx The {@link SessionContext} information.
      * @param iCtx The {@link InvocationContext} information.
-     * @return The {@link String} with values to log.
+     * @param nanos The execution time of the intercepted method, in
+     * nanoseconds.
+     * @param e The exception of the intercepted method, {@code null} if the
+     * call was successful.
+     * @return The log event.
      */
-    private String createCallInfo(final SessionContext sCtx, final InvocationContext iCtx) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("user [").append(sCtx.getCallerPrincipal().getName())
-                .append("] invoked [").append(iCtx.getTarget().toString())
-                .append("] with method [").append(iCtx.getMethod().getName())
-                .append("] and parameters: [");
-
-        // build pareameters string
-        if (iCtx.getParameters() == null) {
-            sb.append("<null>");
-        } else {
-            for (Object obj : iCtx.getParameters()) {
-                if (obj != null) {
-                    sb.append(obj.toString()).append(", ");
-                }
-            }
-            int delPos = sb.length();
-            sb.delete(delPos - 2, delPos);
-        }
-
-        return sb.append("]").toString();
+    private CallLogEvent createCallLogEvent(final InvocationContext iCtx, long nanos, Exception e) {
+        return new CallLogEvent(sCtx.getCallerPrincipal().getName(), iCtx.getTarget().getClass(),
+                iCtx.getMethod().getName(), iCtx.getParameters(), nanos, e);
     }
 
     /**
-     * Log a call that was executed successful. In case the intercepted class is
-     * an instance of {@link AbstractREST}, the matching
+     * Monitor a call that was executed successful. In case the intercepted
+     * class is an instance of {@link AbstractREST}, the matching
      * {@link BusinessServiceMXBean} will be invoked, too.
      *
      * @param iCtx The {@link InvocationContext} information.
-     * @param time The execution time of the intercepted method.
+     * @param nanos The execution time of the intercepted method, in
+     * nanoseconds.
      */
-    private void addSuccessfulCall(final InvocationContext iCtx, long time) {
-        log.info("Exceution time for {} : {}ms", iCtx.getMethod().getName(), time);
+    private void addSuccessfulCall(final InvocationContext iCtx, long nanos) {
         if (iCtx.getTarget() instanceof AbstractREST) {
             AbstractREST restCallObject = (AbstractREST) iCtx.getTarget();
             if (restCallObject.getMonitorBean() != null) {
-                restCallObject.getMonitorBean().addSuccessfulCall(iCtx.getTarget().getClass().getSimpleName(), iCtx.getMethod().getName(), time);
+                restCallObject.getMonitorBean().addSuccessfulCallNanos(iCtx.getTarget().getClass().getSimpleName(), signature(iCtx.getMethod()), nanos);
             }
         }
     }
 
     /**
-     * Log a call that was executed with an exception. In case the intercepted
-     * class is an instance of {@link AbstractREST}, the matching
+     * Monitor a call that was executed with an exception. In case the
+     * intercepted class is an instance of {@link AbstractREST}, the matching
      * {@link BusinessServiceMXBean} will be invoked, too.
      *
      * @param iCtx The {@link InvocationContext} information.
      * @param e The exception of the intercepted method.
      */
     private void addFailedCall(final InvocationContext iCtx, Exception e) {
-        log.error("Exception for {} : {}", iCtx.getMethod().getName(), e.getMessage());
         if (iCtx.getTarget() instanceof AbstractREST) {
             AbstractREST restCallObject = (AbstractREST) iCtx.getTarget();
             if (restCallObject.getMonitorBean() != null) {
-                restCallObject.getMonitorBean().addFailedCall();
+                restCallObject.getMonitorBean().addFailedCall(iCtx.getTarget().getClass().getSimpleName(), signature(iCtx.getMethod()), e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Get the signature of a method, used for monitoring overloaded methods
+     * separately, e. g. {@code find(String,int,int)}.
+     *
+     * @param method The {@link Method}.
+     * @return The method name and the simple names of the parameter types.
+     */
+    private static String signature(Method method) {
+        StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                signature.append(',');
             }
+            signature.append(parameterTypes[i].getSimpleName());
         }
+        return signature.append(')').toString();
     }
 }
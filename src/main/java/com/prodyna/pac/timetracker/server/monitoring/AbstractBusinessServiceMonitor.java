@@ -7,11 +7,15 @@ package com.prodyna.pac.timetracker.server.monitoring;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Hashtable;
 import java.util.List;
-import java.util.NavigableSet;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -28,6 +32,15 @@ import org.slf4j.Logger;
  * Default implementation of the
  * {@link BusinessServiceMXBean} {@code Interface}. This class is abstract in
  * order to force providing a node and leaf name for the constructor.
+ * <p/>
+ * Recording a call does not block: counters are {@link LongAdder}s, the
+ * minimum and maximum are updated by compare and set, and the latest calls are
+ * kept in a ring buffer. The rates and percentiles of the last 1, 5 and 15
+ * minutes come from {@link SlidingWindow}s of time buckets. The fastest and
+ * slowest lists are only locked if a call qualifies for them. Subclasses
+ * should use
+ * {@code @ConcurrencyManagement(ConcurrencyManagementType.BEAN)}, so the
+ * container does not serialize the calls.
  *
  * @see
  * <a href="http://docs.oracle.com/javase/7/docs/api/javax/management/MXBean.html">MX
@@ -38,6 +51,10 @@ import org.slf4j.Logger;
  */
 public abstract class AbstractBusinessServiceMonitor implements BusinessServiceMXBean {
 
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long FIVE_MINUTES = TimeUnit.MINUTES.toMillis(5);
+    private static final long FIFTEEN_MINUTES = TimeUnit.MINUTES.toMillis(15);
+
     /**
      * The {@link Logger} to use.
      */
@@ -45,39 +62,93 @@ public abstract class AbstractBusinessServiceMonitor implements BusinessServiceM
     protected Logger log;
 
     /**
-     * A {@code Collection} of the fastest calls.
+     * A {@code Collection} of the fastest calls, guarded by itself.
      */
     protected final TreeSet<MonitorEntryValues> fastestSet;
 
     /**
-     * A {@code Collection} of the slowest calls.
+     * A {@code Collection} of the slowest calls, guarded by itself.
      */
     protected final TreeSet<MonitorEntryValues> slowestSet;
 
     /**
-     * A {@code Collection} of the latest calls.
+     * A ring buffer of the latest calls.
      */
-    protected final LinkedList<MonitorEntryValues> latestQueue;
+    protected volatile LatestCalls latestCalls;
 
     /**
      * The default {@code Collection} size to use.
      */
-    protected int listSize = BusinessServiceMXBean.DEFAULT_LIST_SIZE;
+    protected volatile int listSize = BusinessServiceMXBean.DEFAULT_LIST_SIZE;
 
     /**
      * A counter for the total number of calls.
      */
-    protected int totalNumberOfCalls;
+    protected final LongAdder totalNumberOfCalls = new LongAdder();
 
     /**
      * A counter for the number of failed calls.
      */
-    protected int numberOfFailedCalls;
+    protected final LongAdder numberOfFailedCalls = new LongAdder();
+
+    /**
+     * The summed up processing time of the successful calls.
+     */
+    protected final LongAdder totalTime = new LongAdder();
+
+    /**
+     * The summed up processing time of the successful calls, in nanoseconds,
+     * matching the {@link #latencyHistogram}.
+     */
+    protected final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * The minimum processing time, {@link Long#MAX_VALUE} if there was no
+     * call.
+     */
+    protected final AtomicLong minimumTime = new AtomicLong(Long.MAX_VALUE);
 
     /**
-     * The average processing time of the stored calls.
+     * The maximum processing time, {@link Long#MIN_VALUE} if there was no
+     * call.
      */
-    protected double averageTime;
+    protected final AtomicLong maximumTime = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * The latency histogram of all successful calls.
+     */
+    protected final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    /**
+     * The calls of the last 15 minutes, in buckets of 5 seconds, for the call
+     * and failure rates.
+     */
+    protected final SlidingWindow callWindow = new SlidingWindow(TimeUnit.SECONDS.toMillis(5), 180, false);
+
+    /**
+     * The latencies of the last 15 minutes, in buckets of 15 seconds, for the
+     * windowed percentiles.
+     */
+    protected final SlidingWindow latencyWindow = new SlidingWindow(TimeUnit.SECONDS.toMillis(15), 60, true);
+
+    /**
+     * The monitors of the single service methods, each registered in
+     * {@code JMX}. The key is the method signature passed by the caller, so
+     * overloaded methods get their own monitor.
+     */
+    protected final Map<String, MethodMonitor> methodMonitors = new ConcurrentHashMap<>();
+
+    /**
+     * The slowest time in a full {@link #fastestSet}: faster calls replace an
+     * entry.
+     */
+    private volatile long fastestThreshold = Long.MAX_VALUE;
+
+    /**
+     * The fastest time in a full {@link #slowestSet}: slower calls replace an
+     * entry.
+     */
+    private volatile long slowestThreshold = Long.MIN_VALUE;
 
     /**
      * The used {@code MK Bean} domain name for creating a {@link ObjectName}.
@@ -110,73 +181,209 @@ public abstract class AbstractBusinessServiceMonitor implements BusinessServiceM
     public AbstractBusinessServiceMonitor(final String domainName, final String leafName) {
         fastestSet = new TreeSet<>(new MonitorEntryValues.MonitorEntryComparator(true));
         slowestSet = new TreeSet<>(new MonitorEntryValues.MonitorEntryComparator(false));
-        latestQueue = new LinkedList<>();
+        latestCalls = new LatestCalls(listSize);
         this.domainName = domainName;
         this.leafName = leafName;
     }
 
     @Override
     public void addSuccessfulCall(String serviceClass, String serviceMethod, long time) {
-        synchronized (fastestSet) {
-            fastestSet.add(new MonitorEntryValues(serviceClass, serviceMethod, time));
-        }
-        synchronized (slowestSet) {
-            slowestSet.add(new MonitorEntryValues(serviceClass, serviceMethod, time));
+        addSuccessfulCall(serviceClass, serviceMethod, time, TimeUnit.MILLISECONDS.toNanos(time));
+    }
+
+    @Override
+    public void addSuccessfulCallNanos(String serviceClass, String serviceMethod, long executionNanos) {
+        addSuccessfulCall(serviceClass, serviceMethod, TimeUnit.NANOSECONDS.toMillis(executionNanos), executionNanos);
+    }
+
+    /**
+     * Logs a successful call.
+     *
+     * @param serviceClass The name of the called class.
+     * @param serviceMethod The service name of the call.
+     * @param time The elapsed execution time, in milliseconds.
+     * @param nanos The elapsed execution time, in nanoseconds.
+     */
+    protected void addSuccessfulCall(String serviceClass, String serviceMethod, long time, long nanos) {
+        latencyHistogram.record(nanos);
+        callWindow.addSuccessfulCall(nanos);
+        latencyWindow.addSuccessfulCall(nanos);
+        getMethodMonitor(serviceClass, serviceMethod).addSuccessfulCall(nanos);
+
+        totalNumberOfCalls.increment();
+        totalTime.add(time);
+        totalNanos.add(nanos);
+        updateMinimum(minimumTime, time);
+        updateMaximum(maximumTime, time);
+
+        // one immutable entry, shared by all lists
+        MonitorEntryValues entry = new MonitorEntryValues(serviceClass, serviceMethod, time);
+        latestCalls.add(entry);
+        if (time < fastestThreshold) {
+            synchronized (fastestSet) {
+                fastestSet.add(entry);
+                fastestThreshold = shrink(fastestSet, listSize);
+            }
         }
-        synchronized (latestQueue) {
-            latestQueue.addFirst(new MonitorEntryValues(serviceClass, serviceMethod, time));
+        if (time > slowestThreshold) {
+            synchronized (slowestSet) {
+                slowestSet.add(entry);
+                slowestThreshold = shrink(slowestSet, listSize);
+            }
         }
-        // check if shrink is needed
-        checkShrinkCollections();
-
-        averageTime = (averageTime * totalNumberOfCalls + time) / (++totalNumberOfCalls);
     }
 
     @Override
     public void addFailedCall() {
-        totalNumberOfCalls++;
-        numberOfFailedCalls++;
+        totalNumberOfCalls.increment();
+        numberOfFailedCalls.increment();
+        callWindow.addFailedCall();
+    }
+
+    @Override
+    public void addFailedCall(String serviceClass, String serviceMethod, String exceptionType) {
+        addFailedCall();
+        getMethodMonitor(serviceClass, serviceMethod).addFailedCall(exceptionType);
     }
 
     @Override
     public int getTotalNumberOfCalls() {
-        return totalNumberOfCalls;
+        return totalNumberOfCalls.intValue();
     }
 
     @Override
     public int getNumberOfFailedCalls() {
-        return numberOfFailedCalls;
+        return numberOfFailedCalls.intValue();
     }
 
     @Override
     public long getMinimumTime() {
-        return fastestSet.first().getExecutionTime();
+        long time = minimumTime.get();
+        return (time == Long.MAX_VALUE) ? 0 : time;
     }
 
     @Override
     public long getMaximumTime() {
-        return slowestSet.first().getExecutionTime();
+        long time = maximumTime.get();
+        return (time == Long.MIN_VALUE) ? 0 : time;
     }
 
     @Override
     public double getAverageTime() {
-        return averageTime;
+        long successfulCalls = totalNumberOfCalls.sum() - numberOfFailedCalls.sum();
+        return (successfulCalls > 0) ? ((double) totalTime.sum() / successfulCalls) : 0;
+    }
+
+    @Override
+    public double getPercentile50Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(50));
+    }
+
+    @Override
+    public double getPercentile90Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(90));
+    }
+
+    @Override
+    public double getPercentile99Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(99));
+    }
+
+    @Override
+    public double getPercentile999Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(99.9));
+    }
+
+    @Override
+    public double getCallRate1m() {
+        return callWindow.getCallRate(ONE_MINUTE);
+    }
+
+    @Override
+    public double getCallRate5m() {
+        return callWindow.getCallRate(FIVE_MINUTES);
+    }
+
+    @Override
+    public double getCallRate15m() {
+        return callWindow.getCallRate(FIFTEEN_MINUTES);
+    }
+
+    @Override
+    public double getFailureRatio1m() {
+        return callWindow.getFailureRatio(ONE_MINUTE);
+    }
+
+    @Override
+    public double getFailureRatio5m() {
+        return callWindow.getFailureRatio(FIVE_MINUTES);
+    }
+
+    @Override
+    public double getFailureRatio15m() {
+        return callWindow.getFailureRatio(FIFTEEN_MINUTES);
+    }
+
+    @Override
+    public double getPercentile50Time1m() {
+        return LatencyPercentiles.toMillis(latencyWindow.getPercentiles(ONE_MINUTE, 50)[0]);
+    }
+
+    @Override
+    public double getPercentile50Time5m() {
+        return LatencyPercentiles.toMillis(latencyWindow.getPercentiles(FIVE_MINUTES, 50)[0]);
+    }
+
+    @Override
+    public double getPercentile50Time15m() {
+        return LatencyPercentiles.toMillis(latencyWindow.getPercentiles(FIFTEEN_MINUTES, 50)[0]);
+    }
+
+    @Override
+    public double getPercentile99Time1m() {
+        return LatencyPercentiles.toMillis(latencyWindow.getPercentiles(ONE_MINUTE, 99)[0]);
+    }
+
+    @Override
+    public double getPercentile99Time5m() {
+        return LatencyPercentiles.toMillis(latencyWindow.getPercentiles(FIVE_MINUTES, 99)[0]);
+    }
+
+    @Override
+    public double getPercentile99Time15m() {
+        return LatencyPercentiles.toMillis(latencyWindow.getPercentiles(FIFTEEN_MINUTES, 99)[0]);
+    }
+
+    @Override
+    public List<LatencyPercentiles> getMethodPercentiles() {
+        List<LatencyPercentiles> percentiles = new ArrayList<>(methodMonitors.size());
+        for (MethodMonitor methodMonitor : methodMonitors.values()) {
+            percentiles.add(new LatencyPercentiles(methodMonitor.getServiceMethod(), methodMonitor.getLatencyHistogram()));
+        }
+        return percentiles;
     }
 
     @Override
     public void restetCounters() {
+        latencyHistogram.reset();
+        callWindow.reset();
+        latencyWindow.reset();
+        methodMonitors.values().forEach(MethodMonitor::restetCounters);
         synchronized (fastestSet) {
             fastestSet.clear();
+            fastestThreshold = Long.MAX_VALUE;
         }
         synchronized (slowestSet) {
             slowestSet.clear();
+            slowestThreshold = Long.MIN_VALUE;
         }
-        synchronized (latestQueue) {
-            latestQueue.clear();
-        }
-        totalNumberOfCalls = 0;
-        numberOfFailedCalls = 0;
-        averageTime = 0;
+        latestCalls = new LatestCalls(listSize);
+        totalNumberOfCalls.reset();
+        numberOfFailedCalls.reset();
+        totalTime.reset();
+        totalNanos.reset();
+        minimumTime.set(Long.MAX_VALUE);
+        maximumTime.set(Long.MIN_VALUE);
     }
 
     @Override
@@ -185,9 +392,14 @@ public abstract class AbstractBusinessServiceMonitor implements BusinessServiceM
             throw new IndexOutOfBoundsException("List size must be >= 0");
         }
 
-        // check if shrink is needed
-        checkShrinkCollections();
         this.listSize = listSize;
+        synchronized (fastestSet) {
+            fastestThreshold = shrink(fastestSet, listSize);
+        }
+        synchronized (slowestSet) {
+            slowestThreshold = shrink(slowestSet, listSize);
+        }
+        latestCalls = latestCalls.resize(listSize);
     }
 
     @Override
@@ -197,17 +409,21 @@ public abstract class AbstractBusinessServiceMonitor implements BusinessServiceM
 
     @Override
     public List<MonitorEntryValues> getFastestList() {
-        return Collections.synchronizedList(new ArrayList<>(fastestSet));
+        synchronized (fastestSet) {
+            return Collections.synchronizedList(new ArrayList<>(fastestSet));
+        }
     }
 
     @Override
     public List<MonitorEntryValues> getSlowestList() {
-        return Collections.synchronizedList(new ArrayList<>(slowestSet));
+        synchronized (slowestSet) {
+            return Collections.synchronizedList(new ArrayList<>(slowestSet));
+        }
     }
 
     @Override
     public List<MonitorEntryValues> getLatestList() {
-        return Collections.synchronizedList(new ArrayList<>(latestQueue));
+        return Collections.synchronizedList(latestCalls.toList());
     }
 
     /**
@@ -233,8 +449,17 @@ public abstract class AbstractBusinessServiceMonitor implements BusinessServiceM
      */
     @PreDestroy
     public void unregisterFromJMX() {
+        MBeanServer platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (String serviceMethod : methodMonitors.keySet()) {
+            try {
+                platformMBeanServer.unregisterMBean(getObjectName(serviceMethod));
+            }
+            catch (InstanceNotFoundException | MalformedObjectNameException | MBeanRegistrationException e) {
+                log.warn("Problem during unregistration of method monitoring from JMX: {}", e.getMessage());
+            }
+        }
         try {
-            ManagementFactory.getPlatformMBeanServer().unregisterMBean(getObjectName());
+            platformMBeanServer.unregisterMBean(getObjectName());
         }
         catch (InstanceNotFoundException | MalformedObjectNameException | MBeanRegistrationException e) {
             throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
@@ -253,55 +478,159 @@ public abstract class AbstractBusinessServiceMonitor implements BusinessServiceM
     }
 
     /**
-     * Check the collections if they are above the limit and resize them.
+     * Get the object name of a service method for lookup in the
+     * {@link MBeanServer}.
+     *
+     * @param serviceMethod The signature of the service method, quoted as it
+     * may contain commas.
+     * @return The object name.
+     * @throws MalformedObjectNameException When the names contain invalid
+     * characters.
      */
-    private void checkShrinkCollections() {
-        checkShrink(fastestSet, listSize, true);
-        checkShrink(slowestSet, listSize, true);
-        checkShrink(latestQueue, listSize, true);
+    private ObjectName getObjectName(String serviceMethod) throws MalformedObjectNameException {
+        Hashtable<String, String> properties = new Hashtable<>(2);
+        properties.put("type", leafName);
+        properties.put("method", ObjectName.quote(serviceMethod));
+        return new ObjectName(domainName, properties);
     }
 
     /**
-     * Check and shrink a {@link NavigableSet}.
+     * Get the monitor of a service method. A new monitor is registered in the
+     * {@link MBeanServer} by the thread that added it, outside of the map
+     * update.
      *
-     * @param set The {@link NavigableSet} to check.
-     * @param maxElements The limit to check.
-     * @param removeFromTail {@code true} if elemets above the limit should be
-     * removed from the tail end, else {@code false} to removce from the head
-     * end.
+     * @param serviceClass The name of the called class.
+     * @param serviceMethod The signature of the service method.
+     * @return The monitor of the service method.
      */
-    private void checkShrink(final NavigableSet<?> set, int maxElements, boolean removeFromTail) {
-        synchronized (set) {
-            int aboveThreshold = set.size() - maxElements;
-            for (; aboveThreshold > 0; aboveThreshold--) {
-                if (removeFromTail) {
-                    set.pollLast();
-                } else {
-                    set.pollFirst();
+    private MethodMonitor getMethodMonitor(String serviceClass, String serviceMethod) {
+        MethodMonitor methodMonitor = methodMonitors.get(serviceMethod);
+        if (methodMonitor == null) {
+            MethodMonitor created = new MethodMonitor(serviceClass, serviceMethod);
+            methodMonitor = methodMonitors.putIfAbsent(serviceMethod, created);
+            if (methodMonitor == null) {
+                methodMonitor = created;
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(created, getObjectName(serviceMethod));
+                }
+                catch (MalformedObjectNameException | MBeanRegistrationException | NotCompliantMBeanException e) {
+                    log.warn("Problem during registration of method monitoring into JMX: {}", e.getMessage());
+                }
+                catch (InstanceAlreadyExistsException iaee) {
+                    log.warn("Caught InstanceAlreadyExistsException: {}", iaee.getMessage());
                 }
             }
         }
+        return methodMonitor;
     }
 
     /**
-     * Check and shrink a {@link Deque}.
+     * Shrink a list of the fastest or slowest calls, the caller must hold the
+     * lock of the list.
      *
-     * @param set The {@link Deque} to check.
+     * @param set The list to shrink, ordered from best to worst entry.
      * @param maxElements The limit to check.
-     * @param removeFromTail {@code true} if elemets above the limit should be
-     * removed from the tail end, else {@code false} to removce from the head
-     * end.
+     * @return The new threshold: the time of the worst entry if the list is
+     * full, else the value that lets all calls pass.
      */
-    private void checkShrink(final Deque<?> queue, int maxElements, boolean removeFromTail) {
-        synchronized (queue) {
-            int aboveThreshold = queue.size() - maxElements;
-            for (; aboveThreshold > 0; aboveThreshold--) {
-                if (removeFromTail) {
-                    queue.pollLast();
-                } else {
-                    queue.pollFirst();
+    private long shrink(final TreeSet<MonitorEntryValues> set, int maxElements) {
+        boolean ascending = (set == fastestSet);
+        while (set.size() > maxElements) {
+            set.pollLast();
+        }
+        if ((maxElements == 0) || (set.size() < maxElements)) {
+            return ascending ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return set.last().getExecutionTime();
+    }
+
+    /**
+     * Lower a value by compare and set.
+     *
+     * @param minimum The current minimum.
+     * @param value The new value.
+     */
+    private static void updateMinimum(final AtomicLong minimum, long value) {
+        long current = minimum.get();
+        while ((value < current) && !minimum.compareAndSet(current, value)) {
+            current = minimum.get();
+        }
+    }
+
+    /**
+     * Raise a value by compare and set.
+     *
+     * @param maximum The current maximum.
+     * @param value The new value.
+     */
+    private static void updateMaximum(final AtomicLong maximum, long value) {
+        long current = maximum.get();
+        while ((value > current) && !maximum.compareAndSet(current, value)) {
+            current = maximum.get();
+        }
+    }
+
+    /**
+     * A lock free ring buffer of the latest calls, with a fixed capacity.
+     */
+    protected static final class LatestCalls {
+
+        private final AtomicReferenceArray<MonitorEntryValues> entries;
+        private final AtomicLong writeCount = new AtomicLong();
+
+        /**
+         * Constructor.
+         *
+         * @param capacity The number of entries to keep.
+         */
+        LatestCalls(int capacity) {
+            entries = new AtomicReferenceArray<>(capacity);
+        }
+
+        /**
+         * Add an entry, replacing the oldest one if full.
+         *
+         * @param entry The entry to add.
+         */
+        void add(MonitorEntryValues entry) {
+            int capacity = entries.length();
+            if (capacity > 0) {
+                entries.set((int) (writeCount.getAndIncrement() % capacity), entry);
+            }
+        }
+
+        /**
+         * Get the entries, the latest first.
+         *
+         * @return The entries.
+         */
+        List<MonitorEntryValues> toList() {
+            int capacity = entries.length();
+            long newest = writeCount.get() - 1;
+            List<MonitorEntryValues> list = new ArrayList<>(capacity);
+            for (long i = newest; (i >= 0) && (i > newest - capacity); i--) {
+                MonitorEntryValues entry = entries.get((int) (i % capacity));
+                if (entry != null) {
+                    list.add(entry);
                 }
             }
+            return list;
+        }
+
+        /**
+         * Create a ring buffer with another capacity, keeping the latest
+         * entries.
+         *
+         * @param capacity The new capacity.
+         * @return The new ring buffer.
+         */
+        LatestCalls resize(int capacity) {
+            LatestCalls resized = new LatestCalls(capacity);
+            List<MonitorEntryValues> latest = toList();
+            for (int i = Math.min(capacity, latest.size()) - 1; i >= 0; i--) {
+                resized.add(latest.get(i));
+            }
+            return resized;
         }
     }
 }
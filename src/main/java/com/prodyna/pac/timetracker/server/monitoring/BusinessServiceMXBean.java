@@ -17,7 +17,10 @@ import java.util.List;
  * <li>a list containing the latest issued calls</li>
  * <li>the posibility to resize the lists</li>
  * <li>the average time of all calls</li>
+ * <li>latency percentiles, for all calls and per service method</li>
  * </ul>
+ * Each service method is additionally displayed as a
+ * {@link MethodMonitorMXBean}, with the additional key {@code method}.
  *
  * @author apatrikis
  */
@@ -38,11 +41,32 @@ public interface BusinessServiceMXBean {
      */
     public void addSuccessfulCall(String serviceClass, String serviceMethod, long executionTime);
 
+    /**
+     * Logs a successful call, with the execution time in nanoseconds. This
+     * keeps the full resolution for the latency percentiles.
+     *
+     * @param serviceClass The name of the called class.
+     * @param serviceMethod The service name of the call (e. g. a method name or
+     * REST method name).
+     * @param executionNanos The elapsed execution time, in nanoseconds.
+     */
+    public void addSuccessfulCallNanos(String serviceClass, String serviceMethod, long executionNanos);
+
     /**
      * Logs a failed call.
      */
     public void addFailedCall();
 
+    /**
+     * Logs a failed call of a service method.
+     *
+     * @param serviceClass The name of the called class.
+     * @param serviceMethod The service name of the call (e. g. a method name or
+     * REST method name).
+     * @param exceptionType The simple class name of the exception.
+     */
+    public void addFailedCall(String serviceClass, String serviceMethod, String exceptionType);
+
     /**
      * Get the total number of calls (successful and failed calls).
      *
@@ -78,6 +102,134 @@ public interface BusinessServiceMXBean {
      */
     public double getAverageTime();
 
+    /**
+     * Get the execution time of 50% of the calls (median), in milliseconds.
+     *
+     * @return The 50th percentile execution time.
+     */
+    public double getPercentile50Time();
+
+    /**
+     * Get the execution time of 90% of the calls, in milliseconds.
+     *
+     * @return The 90th percentile execution time.
+     */
+    public double getPercentile90Time();
+
+    /**
+     * Get the execution time of 99% of the calls, in milliseconds.
+     *
+     * @return The 99th percentile execution time.
+     */
+    public double getPercentile99Time();
+
+    /**
+     * Get the execution time of 99.9% of the calls, in milliseconds.
+     *
+     * @return The 99.9th percentile execution time.
+     */
+    public double getPercentile999Time();
+
+    /**
+     * Get the number of calls per second of the last minute.
+     *
+     * @return The call rate.
+     */
+    public double getCallRate1m();
+
+    /**
+     * Get the number of calls per second of the last 5 minutes.
+     *
+     * @return The call rate.
+     */
+    public double getCallRate5m();
+
+    /**
+     * Get the number of calls per second of the last 15 minutes.
+     *
+     * @return The call rate.
+     */
+    public double getCallRate15m();
+
+    /**
+     * Get the share of failed calls of the last minute, between {@code 0} and
+     * {@code 1}.
+     *
+     * @return The failure ratio.
+     */
+    public double getFailureRatio1m();
+
+    /**
+     * Get the share of failed calls of the last 5 minutes, between {@code 0}
+     * and {@code 1}.
+     *
+     * @return The failure ratio.
+     */
+    public double getFailureRatio5m();
+
+    /**
+     * Get the share of failed calls of the last 15 minutes, between {@code 0}
+     * and {@code 1}.
+     *
+     * @return The failure ratio.
+     */
+    public double getFailureRatio15m();
+
+    /**
+     * Get the execution time of 50% of the calls (median) of the last minute,
+     * in milliseconds.
+     *
+     * @return The 50th percentile execution time.
+     */
+    public double getPercentile50Time1m();
+
+    /**
+     * Get the execution time of 50% of the calls (median) of the last 5
+     * minutes, in milliseconds.
+     *
+     * @return The 50th percentile execution time.
+     */
+    public double getPercentile50Time5m();
+
+    /**
+     * Get the execution time of 50% of the calls (median) of the last 15
+     * minutes, in milliseconds.
+     *
+     * @return The 50th percentile execution time.
+     */
+    public double getPercentile50Time15m();
+
+    /**
+     * Get the execution time of 99% of the calls of the last minute, in
+     * milliseconds.
+     *
+     * @return The 99th percentile execution time.
+     */
+    public double getPercentile99Time1m();
+
+    /**
+     * Get the execution time of 99% of the calls of the last 5 minutes, in
+     * milliseconds.
+     *
+     * @return The 99th percentile execution time.
+     */
+    public double getPercentile99Time5m();
+
+    /**
+     * Get the execution time of 99% of the calls of the last 15 minutes, in
+     * milliseconds.
+     *
+     * @return The 99th percentile execution time.
+     */
+    public double getPercentile99Time15m();
+
+    /**
+     * Get the latency percentiles of each service method.
+     *
+     * @return The latency percentiles, one entry per service method.
+     */
+    public List<LatencyPercentiles> getMethodPercentiles();
+
     /**
      * Reset all counters.
      */
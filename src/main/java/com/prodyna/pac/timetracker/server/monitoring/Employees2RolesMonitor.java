@@ -5,6 +5,8 @@
 package com.prodyna.pac.timetracker.server.monitoring;
 
 import com.prodyna.pac.timetracker.server.rest.Employees2RolesREST;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
 
@@ -16,6 +18,7 @@ import javax.ejb.Startup;
  */
 @Startup
 @Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class Employees2RolesMonitor extends AbstractBusinessServiceMonitor {
 
     /**
@@ -0,0 +1,171 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A latency histogram with log-linear buckets, similar to a
+ * {@code HdrHistogram}: every power of two range is split into
+ * {@value #SUB_BUCKET_COUNT} linear buckets, so percentiles are reported with
+ * a relative error below 3.2%. Values are recorded in nanoseconds, up to
+ * {@link #MAX_VALUE} (about 73 minutes); bigger values are recorded as the
+ * maximum. The memory used is fixed, recording does not block.
+ *
+ * @author apatrikis
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The maximum value that can be recorded, in nanoseconds.
+     */
+    public static final long MAX_VALUE = (1L << 42) - 1;
+
+    private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Record a value.
+     *
+     * @param nanos The value in nanoseconds, negative values are recorded as
+     * {@code 0}.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(bucketIndex(value));
+    }
+
+    /**
+     * Get the number of recorded values.
+     *
+     * @return The number of recorded values.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Get the value below which the given percentage of the recorded values
+     * fall.
+     *
+     * @param percentile The percentile, between {@code 0} and {@code 100}.
+     * @return The percentile value in nanoseconds, or {@code 0} if no values
+     * were recorded.
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Get several percentiles from the same snapshot of the recorded values.
+     *
+     * @param percentiles The percentiles, in ascending order, each between
+     * {@code 0} and {@code 100}.
+     * @return The percentile values in nanoseconds, {@code 0} if no values were
+     * recorded.
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] snapshot = newSnapshot();
+        addTo(snapshot);
+        return getPercentiles(snapshot, percentiles);
+    }
+
+    /**
+     * Create an empty snapshot, to merge several histograms by
+     * {@link #addTo(long[])}.
+     *
+     * @return The empty snapshot.
+     */
+    static long[] newSnapshot() {
+        return new long[BUCKET_COUNT];
+    }
+
+    /**
+     * Add the recorded values to a snapshot.
+     *
+     * @param snapshot The snapshot created by {@link #newSnapshot()}.
+     */
+    void addTo(long[] snapshot) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] += counts.get(i);
+        }
+    }
+
+    /**
+     * Get several percentiles of a snapshot.
+     *
+     * @param snapshot The snapshot created by {@link #newSnapshot()}.
+     * @param percentiles The percentiles, in ascending order, each between
+     * {@code 0} and {@code 100}.
+     * @return The percentile values in nanoseconds, {@code 0} if the snapshot
+     * is empty.
+     */
+    static long[] getPercentiles(long[] snapshot, double... percentiles) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += snapshot[i];
+        }
+
+        long[] values = new long[percentiles.length];
+        if (total == 0) {
+            return values;
+        }
+
+        int bucket = 0;
+        long cumulated = snapshot[0];
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100.0 * total));
+            while ((cumulated < rank) && (bucket < BUCKET_COUNT - 1)) {
+                cumulated += snapshot[++bucket];
+            }
+            values[p] = bucketUpperBound(bucket);
+        }
+        return values;
+    }
+
+    /**
+     * Remove all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Get the bucket of a value: values below {@value #SUB_BUCKET_COUNT} have
+     * their own bucket, bigger values share a bucket with the values that
+     * only differ in the bits below the {@value #SUB_BUCKET_BITS} most
+     * significant bits.
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift * SUB_BUCKET_COUNT) + (int) (value >>> shift);
+    }
+
+    /**
+     * Get the highest value that is recorded in a bucket.
+     */
+    private static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index / SUB_BUCKET_COUNT) - 1;
+        long subBucket = index - (shift * SUB_BUCKET_COUNT);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
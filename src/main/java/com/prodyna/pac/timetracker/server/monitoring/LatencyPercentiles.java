@@ -0,0 +1,109 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.monitoring;
+
+/**
+ * A {@code POJO} for displaying the latency percentiles of a service method in
+ * a {@code JMX Console}. All times are in milliseconds.
+ *
+ * @author apatrikis
+ */
+public class LatencyPercentiles {
+
+    private final String serviceMethod;
+    private final long count;
+    private final double percentile50Time;
+    private final double percentile90Time;
+    private final double percentile99Time;
+    private final double percentile999Time;
+
+    /**
+     * Constructor.
+     *
+     * @param serviceMethod The service name of the call (e. g. a method name or
+     * REST method name).
+     * @param histogram The {@link LatencyHistogram} to take the values from.
+     */
+    public LatencyPercentiles(String serviceMethod, LatencyHistogram histogram) {
+        long[] nanos = histogram.getPercentiles(50, 90, 99, 99.9);
+        this.serviceMethod = serviceMethod;
+        this.count = histogram.getCount();
+        this.percentile50Time = toMillis(nanos[0]);
+        this.percentile90Time = toMillis(nanos[1]);
+        this.percentile99Time = toMillis(nanos[2]);
+        this.percentile999Time = toMillis(nanos[3]);
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds, keeping the fraction.
+     *
+     * @param nanos The nanoseconds.
+     * @return The milliseconds.
+     */
+    static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Get the service name of the call.
+     *
+     * @return The service name of the call.
+     */
+    public String getServiceMethod() {
+        return serviceMethod;
+    }
+
+    /**
+     * Get the number of recorded calls.
+     *
+     * @return The number of recorded calls.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the execution time of 50% of the calls.
+     *
+     * @return The median execution time.
+     */
+    public double getPercentile50Time() {
+        return percentile50Time;
+    }
+
+    /**
+     * Get the execution time of 90% of the calls.
+     *
+     * @return The 90th percentile execution time.
+     */
+    public double getPercentile90Time() {
+        return percentile90Time;
+    }
+
+    /**
+     * Get the execution time of 99% of the calls.
+     *
+     * @return The 99th percentile execution time.
+     */
+    public double getPercentile99Time() {
+        return percentile99Time;
+    }
+
+    /**
+     * Get the execution time of 99.9% of the calls.
+     *
+     * @return The 99.9th percentile execution time.
+     */
+    public double getPercentile999Time() {
+        return percentile999Time;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyPercentiles{" + "serviceMethod=" + serviceMethod + ", count=" + count
+                + ", percentile50Time=" + percentile50Time + ", percentile90Time=" + percentile90Time
+                + ", percentile99Time=" + percentile99Time + ", percentile999Time=" + percentile999Time + '}';
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.monitoring;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default implementation of the {@link MethodMonitorMXBean}
+ * {@code Interface}. Instances are created and registered in {@code JMX} by
+ * {@link AbstractBusinessServiceMonitor}, one per service method. Recording a
+ * call does not block.
+ *
+ * @author apatrikis
+ */
+public class MethodMonitor implements MethodMonitorMXBean {
+
+    private final String serviceClass;
+    private final String serviceMethod;
+
+    private final LongAdder totalNumberOfCalls = new LongAdder();
+    private final LongAdder numberOfFailedCalls = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong minimumNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximumNanos = new AtomicLong(Long.MIN_VALUE);
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final Map<String, LongAdder> failuresByExceptionType = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param serviceClass The name of the monitored class.
+     * @param serviceMethod The signature of the monitored method.
+     */
+    public MethodMonitor(String serviceClass, String serviceMethod) {
+        this.serviceClass = serviceClass;
+        this.serviceMethod = serviceMethod;
+    }
+
+    /**
+     * Logs a successful call.
+     *
+     * @param nanos The elapsed execution time, in nanoseconds.
+     */
+    public void addSuccessfulCall(long nanos) {
+        totalNumberOfCalls.increment();
+        totalNanos.add(nanos);
+        latencyHistogram.record(nanos);
+
+        long current = minimumNanos.get();
+        while ((nanos < current) && !minimumNanos.compareAndSet(current, nanos)) {
+            current = minimumNanos.get();
+        }
+        current = maximumNanos.get();
+        while ((nanos > current) && !maximumNanos.compareAndSet(current, nanos)) {
+            current = maximumNanos.get();
+        }
+    }
+
+    /**
+     * Logs a failed call.
+     *
+     * @param exceptionType The simple class name of the exception.
+     */
+    public void addFailedCall(String exceptionType) {
+        totalNumberOfCalls.increment();
+        numberOfFailedCalls.increment();
+        failuresByExceptionType.computeIfAbsent(exceptionType, t -> new LongAdder()).increment();
+    }
+
+    /**
+     * Get the latency histogram of the successful calls.
+     *
+     * @return The latency histogram.
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Get the summed up processing time of the successful calls.
+     *
+     * @return The processing time, in nanoseconds.
+     */
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Get the live failure counters, without copying them.
+     *
+     * @return The failure counters by the simple class name of the exception.
+     */
+    Map<String, LongAdder> getFailureCounters() {
+        return failuresByExceptionType;
+    }
+
+    @Override
+    public String getServiceClass() {
+        return serviceClass;
+    }
+
+    @Override
+    public String getServiceMethod() {
+        return serviceMethod;
+    }
+
+    @Override
+    public long getTotalNumberOfCalls() {
+        return totalNumberOfCalls.sum();
+    }
+
+    @Override
+    public long getNumberOfFailedCalls() {
+        return numberOfFailedCalls.sum();
+    }
+
+    @Override
+    public Map<String, Long> getFailuresByExceptionType() {
+        Map<String, Long> failures = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> e : failuresByExceptionType.entrySet()) {
+            failures.put(e.getKey(), e.getValue().sum());
+        }
+        return failures;
+    }
+
+    @Override
+    public double getMinimumTime() {
+        long nanos = minimumNanos.get();
+        return (nanos == Long.MAX_VALUE) ? 0 : LatencyPercentiles.toMillis(nanos);
+    }
+
+    @Override
+    public double getMaximumTime() {
+        long nanos = maximumNanos.get();
+        return (nanos == Long.MIN_VALUE) ? 0 : LatencyPercentiles.toMillis(nanos);
+    }
+
+    @Override
+    public double getAverageTime() {
+        long successfulCalls = totalNumberOfCalls.sum() - numberOfFailedCalls.sum();
+        return (successfulCalls > 0) ? LatencyPercentiles.toMillis(totalNanos.sum()) / successfulCalls : 0;
+    }
+
+    @Override
+    public double getPercentile50Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(50));
+    }
+
+    @Override
+    public double getPercentile90Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(90));
+    }
+
+    @Override
+    public double getPercentile99Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(99));
+    }
+
+    @Override
+    public double getPercentile999Time() {
+        return LatencyPercentiles.toMillis(latencyHistogram.getPercentile(99.9));
+    }
+
+    @Override
+    public void restetCounters() {
+        totalNumberOfCalls.reset();
+        numberOfFailedCalls.reset();
+        totalNanos.reset();
+        minimumNanos.set(Long.MAX_VALUE);
+        maximumNanos.set(Long.MIN_VALUE);
+        latencyHistogram.reset();
+        failuresByExceptionType.clear();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.monitoring;
+
+import java.util.Map;
+
+/**
+ * {@code Interface} for a {@code MXBean} that displays the values of a single
+ * service method:
+ * <ul>
+ * <li>the number of successful and failed calls</li>
+ * <li>the failed calls per exception type</li>
+ * <li>the minimum, maximum and average execution time</li>
+ * <li>latency percentiles</li>
+ * </ul>
+ * All times are in milliseconds.
+ *
+ * @author apatrikis
+ */
+public interface MethodMonitorMXBean {
+
+    /**
+     * Get the name of the monitored class.
+     *
+     * @return The name of the monitored class.
+     */
+    public String getServiceClass();
+
+    /**
+     * Get the signature of the monitored method, e. g.
+     * {@code find(String,int,int)}.
+     *
+     * @return The signature of the monitored method.
+     */
+    public String getServiceMethod();
+
+    /**
+     * Get the total number of calls (successful and failed calls).
+     *
+     * @return The total number of calls.
+     */
+    public long getTotalNumberOfCalls();
+
+    /**
+     * Get the number of failed calls.
+     *
+     * @return The number of failed calls.
+     */
+    public long getNumberOfFailedCalls();
+
+    /**
+     * Get the number of failed calls per exception type.
+     *
+     * @return The number of failed calls, by simple class name of the
+     * exception.
+     */
+    public Map<String, Long> getFailuresByExceptionType();
+
+    /**
+     * Get the mimimum execution time.
+     *
+     * @return The mimimum execution time.
+     */
+    public double getMinimumTime();
+
+    /**
+     * Get the maximum execution time.
+     *
+     * @return The maximum execution time.
+     */
+    public double getMaximumTime();
+
+    /**
+     * Get the average execution time.
+     *
+     * @return The average execution time.
+     */
+    public double getAverageTime();
+
+    /**
+     * Get the execution time of 50% of the calls (median).
+     *
+     * @return The 50th percentile execution time.
+     */
+    public double getPercentile50Time();
+
+    /**
+     * Get the execution time of 90% of the calls.
+     *
+     * @return The 90th percentile execution time.
+     */
+    public double getPercentile90Time();
+
+    /**
+     * Get the execution time of 99% of the calls.
+     *
+     * @return The 99th percentile execution time.
+     */
+    public double getPercentile99Time();
+
+    /**
+     * Get the execution time of 99.9% of the calls.
+     *
+     * @return The 99.9th percentile execution time.
+     */
+    public double getPercentile999Time();
+
+    /**
+     * Reset all counters.
+     */
+    public void restetCounters();
+}
@@ -0,0 +1,208 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.monitoring;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+
+/**
+ * Renders the values of all {@link AbstractBusinessServiceMonitor}s in the
+ * {@code Prometheus} text exposition format. The values are read straight from
+ * the counters and histograms of the monitors and written into one reusable
+ * buffer, so a scrape does not create the lists of {@link MonitorEntryValues}.
+ * All times are in seconds.
+ *
+ * @see
+ * <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Exposition
+ * formats</a>
+ * @author apatrikis
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class MetricsExporter {
+
+    /**
+     * The media type of the text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {50, 90, 99, 99.9};
+
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+
+    private static final String[] WINDOWS = {"1m", "5m", "15m"};
+
+    private static final long[] WINDOW_MILLIS = {
+        TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(15)};
+
+    @Inject
+    private EmployeesMonitor employeesMonitor;
+
+    @Inject
+    private Employees2RolesMonitor employees2RolesMonitor;
+
+    @Inject
+    private ProjectsMonitor projectsMonitor;
+
+    @Inject
+    private Projects2EmployeesMonitor projects2EmployeesMonitor;
+
+    @Inject
+    private TimeRecordsMonitor timeRecordsMonitor;
+
+    @Inject
+    private StatusMonitor statusMonitor;
+
+    private List<AbstractBusinessServiceMonitor> monitors;
+
+    /**
+     * The reusable buffer, guarded by itself.
+     */
+    private final StringBuilder buffer = new StringBuilder(16 * 1024);
+
+    /**
+     * Collect the monitors to render.
+     */
+    @PostConstruct
+    public void init() {
+        monitors = Arrays.asList(employeesMonitor, employees2RolesMonitor, projectsMonitor,
+                projects2EmployeesMonitor, timeRecordsMonitor, statusMonitor);
+    }
+
+    /**
+     * Render the values of all monitors.
+     *
+     * @return The values in the text exposition format.
+     */
+    public String render() {
+        synchronized (buffer) {
+            buffer.setLength(0);
+            writeServiceMetrics(buffer);
+            writeMethodMetrics(buffer);
+            return buffer.toString();
+        }
+    }
+
+    private void writeServiceMetrics(StringBuilder out) {
+        header(out, "timetracker_calls_total", "counter", "Number of calls, including failed calls.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            sample(out, "timetracker_calls_total", monitor, null, monitor.totalNumberOfCalls.sum());
+        }
+
+        header(out, "timetracker_failed_calls_total", "counter", "Number of failed calls.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            sample(out, "timetracker_failed_calls_total", monitor, null, monitor.numberOfFailedCalls.sum());
+        }
+
+        header(out, "timetracker_call_duration_seconds", "summary", "Execution time of the successful calls.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            long[] nanos = monitor.latencyHistogram.getPercentiles(QUANTILES);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                out.append("timetracker_call_duration_seconds{service=\"").append(monitor.leafName)
+                        .append("\",quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                        .append(nanos[i] / 1e9).append('\n');
+            }
+            sample(out, "timetracker_call_duration_seconds_sum", monitor, null, monitor.totalNanos.sum() / 1e9);
+            sample(out, "timetracker_call_duration_seconds_count", monitor, null, monitor.latencyHistogram.getCount());
+        }
+
+        header(out, "timetracker_call_rate", "gauge", "Calls per second of a sliding window.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            for (int i = 0; i < WINDOWS.length; i++) {
+                sample(out, "timetracker_call_rate", monitor, WINDOWS[i], monitor.callWindow.getCallRate(WINDOW_MILLIS[i]));
+            }
+        }
+
+        header(out, "timetracker_failure_ratio", "gauge", "Share of failed calls of a sliding window.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            for (int i = 0; i < WINDOWS.length; i++) {
+                sample(out, "timetracker_failure_ratio", monitor, WINDOWS[i], monitor.callWindow.getFailureRatio(WINDOW_MILLIS[i]));
+            }
+        }
+
+        header(out, "timetracker_window_call_duration_seconds", "gauge", "Execution time percentiles of a sliding window.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            for (int w = 0; w < WINDOWS.length; w++) {
+                long[] nanos = monitor.latencyWindow.getPercentiles(WINDOW_MILLIS[w], QUANTILES);
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    out.append("timetracker_window_call_duration_seconds{service=\"").append(monitor.leafName)
+                            .append("\",window=\"").append(WINDOWS[w])
+                            .append("\",quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                            .append(nanos[i] / 1e9).append('\n');
+                }
+            }
+        }
+    }
+
+    private void writeMethodMetrics(StringBuilder out) {
+        header(out, "timetracker_method_calls_total", "counter", "Number of calls of a service method.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            for (MethodMonitor method : monitor.methodMonitors.values()) {
+                methodSample(out, "timetracker_method_calls_total", monitor, method).append(method.getTotalNumberOfCalls()).append('\n');
+            }
+        }
+
+        header(out, "timetracker_method_failures_total", "counter", "Number of failed calls of a service method by exception type.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            for (MethodMonitor method : monitor.methodMonitors.values()) {
+                for (Map.Entry<String, LongAdder> failure : method.getFailureCounters().entrySet()) {
+                    out.append("timetracker_method_failures_total{service=\"").append(monitor.leafName)
+                            .append("\",method=\"").append(method.getServiceMethod())
+                            .append("\",exception=\"").append(failure.getKey()).append("\"} ")
+                            .append(failure.getValue().sum()).append('\n');
+                }
+            }
+        }
+
+        header(out, "timetracker_method_call_duration_seconds", "summary", "Execution time of the successful calls of a service method.");
+        for (AbstractBusinessServiceMonitor monitor : monitors) {
+            for (MethodMonitor method : monitor.methodMonitors.values()) {
+                long[] nanos = method.getLatencyHistogram().getPercentiles(QUANTILES);
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    out.append("timetracker_method_call_duration_seconds{service=\"").append(monitor.leafName)
+                            .append("\",method=\"").append(method.getServiceMethod())
+                            .append("\",quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                            .append(nanos[i] / 1e9).append('\n');
+                }
+                methodSample(out, "timetracker_method_call_duration_seconds_sum", monitor, method).append(method.getTotalNanos() / 1e9).append('\n');
+                methodSample(out, "timetracker_method_call_duration_seconds_count", monitor, method).append(method.getLatencyHistogram().getCount()).append('\n');
+            }
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, AbstractBusinessServiceMonitor monitor, String window, long value) {
+        labels(out, name, monitor, window).append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, AbstractBusinessServiceMonitor monitor, String window, double value) {
+        labels(out, name, monitor, window).append(value).append('\n');
+    }
+
+    private static StringBuilder labels(StringBuilder out, String name, AbstractBusinessServiceMonitor monitor, String window) {
+        out.append(name).append("{service=\"").append(monitor.leafName);
+        if (window != null) {
+            out.append("\",window=\"").append(window);
+        }
+        return out.append("\"} ");
+    }
+
+    private static StringBuilder methodSample(StringBuilder out, String name, AbstractBusinessServiceMonitor monitor, MethodMonitor method) {
+        return out.append(name).append("{service=\"").append(monitor.leafName)
+                .append("\",method=\"").append(method.getServiceMethod()).append("\"} ");
+    }
+}
@@ -12,7 +12,8 @@ import org.slf4j.MDC;
 
 /**
  * A {@code POJO} for storing the values to be displayed in a
- * {@code JMX Console}.
+ * {@code JMX Console}. Instances are immutable, so one instance can be shared
+ * by all lists of a monitor.
  *
  * @author apatrikis
  */
@@ -21,7 +22,7 @@ public class MonitorEntryValues {
     private final String uuid;
     private final String serviceClass;
     private final String serviceMethod;
-    private final Date timestamp;
+    private final long timestamp;
     private final long executionTime;
 
     /**
@@ -36,7 +37,7 @@ public class MonitorEntryValues {
         this.uuid = MDC.get("UUID");
         this.serviceClass = serviceClass;
         this.serviceMethod = serviceMethod;
-        this.timestamp = new Date();
+        this.timestamp = System.currentTimeMillis();
         this.executionTime = executionTime;
     }
 
@@ -73,7 +74,7 @@ public class MonitorEntryValues {
      * @return The timestamo this object was created.
      */
     public Date getTimestamp() {
-        return timestamp;
+        return new Date(timestamp);
     }
 
     /**
@@ -106,7 +107,7 @@ public class MonitorEntryValues {
 
     @Override
     public String toString() {
-        return "MonitorEntryValues{" + "uuid=" + uuid + ", serviceClass=" + serviceClass + ", serviceMethod=" + serviceMethod + ", timestamp=" + timestamp + ", executionTime=" + executionTime + '}';
+        return "MonitorEntryValues{" + "uuid=" + uuid + ", serviceClass=" + serviceClass + ", serviceMethod=" + serviceMethod + ", timestamp=" + getTimestamp() + ", executionTime=" + executionTime + '}';
     }
 
     /**
@@ -141,7 +142,7 @@ public class MonitorEntryValues {
             } else if (o1.getExecutionTime() > o2.getExecutionTime()) {
                 comp = (sortAscending) ? 1 : -1;
             } else {
-                int byDate = o1.getTimestamp().compareTo(o2.getTimestamp());
+                int byDate = Long.compare(o1.timestamp, o2.timestamp);
                 comp = (sortAscending) ? byDate : (byDate * -1);
             }
 
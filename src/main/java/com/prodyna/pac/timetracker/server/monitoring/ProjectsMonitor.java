@@ -5,6 +5,8 @@
 package com.prodyna.pac.timetracker.server.monitoring;
 
 import com.prodyna.pac.timetracker.server.rest.ProjectsREST;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
 
@@ -15,6 +17,7 @@ import javax.ejb.Startup;
  */
 @Startup
 @Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class ProjectsMonitor extends AbstractBusinessServiceMonitor {
 
     /**
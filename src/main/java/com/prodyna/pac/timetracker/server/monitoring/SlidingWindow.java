@@ -0,0 +1,204 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.monitoring;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the calls of a sliding time window. The window is split into a ring
+ * of buckets of a fixed duration; a bucket holds the calls of its period and
+ * is replaced by compare and set once its period has passed, so recording a
+ * call does not block. A window of {@code n} buckets covers the current,
+ * still running bucket and the {@code n - 1} buckets before.
+ *
+ * @author apatrikis
+ */
+public class SlidingWindow {
+
+    private final long bucketMillis;
+    private final boolean withLatencies;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private volatile long startMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param bucketMillis The duration of one bucket, in milliseconds.
+     * @param bucketCount The number of buckets, limiting the longest window.
+     * @param withLatencies {@code true} to record a {@link LatencyHistogram}
+     * per bucket, for windowed percentiles.
+     */
+    public SlidingWindow(long bucketMillis, int bucketCount, boolean withLatencies) {
+        this.bucketMillis = bucketMillis;
+        this.withLatencies = withLatencies;
+        buckets = new AtomicReferenceArray<>(bucketCount);
+        startMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Logs a successful call.
+     *
+     * @param nanos The elapsed execution time, in nanoseconds.
+     */
+    public void addSuccessfulCall(long nanos) {
+        Bucket bucket = currentBucket();
+        bucket.calls.increment();
+        if (bucket.latencies != null) {
+            bucket.latencies.record(nanos);
+        }
+    }
+
+    /**
+     * Logs a failed call.
+     */
+    public void addFailedCall() {
+        Bucket bucket = currentBucket();
+        bucket.calls.increment();
+        bucket.failedCalls.increment();
+    }
+
+    /**
+     * Get the number of calls of a window.
+     *
+     * @param windowMillis The duration of the window, in milliseconds.
+     * @return The number of calls.
+     */
+    public long getNumberOfCalls(long windowMillis) {
+        long calls = 0;
+        long current = epoch(System.currentTimeMillis());
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (isInWindow(bucket, current, windowMillis)) {
+                calls += bucket.calls.sum();
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Get the number of failed calls of a window.
+     *
+     * @param windowMillis The duration of the window, in milliseconds.
+     * @return The number of failed calls.
+     */
+    public long getNumberOfFailedCalls(long windowMillis) {
+        long failedCalls = 0;
+        long current = epoch(System.currentTimeMillis());
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (isInWindow(bucket, current, windowMillis)) {
+                failedCalls += bucket.failedCalls.sum();
+            }
+        }
+        return failedCalls;
+    }
+
+    /**
+     * Get the number of calls per second of a window. Shortly after the start
+     * or a reset, the rate is based on the time passed since.
+     *
+     * @param windowMillis The duration of the window, in milliseconds.
+     * @return The calls per second.
+     */
+    public double getCallRate(long windowMillis) {
+        long elapsed = Math.min(windowMillis, System.currentTimeMillis() - startMillis);
+        return getNumberOfCalls(windowMillis) * 1000.0 / Math.max(elapsed, bucketMillis);
+    }
+
+    /**
+     * Get the share of failed calls of a window.
+     *
+     * @param windowMillis The duration of the window, in milliseconds.
+     * @return The failed calls divided by all calls, {@code 0} if there was no
+     * call.
+     */
+    public double getFailureRatio(long windowMillis) {
+        long calls = 0;
+        long failedCalls = 0;
+        long current = epoch(System.currentTimeMillis());
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (isInWindow(bucket, current, windowMillis)) {
+                calls += bucket.calls.sum();
+                failedCalls += bucket.failedCalls.sum();
+            }
+        }
+        return (calls > 0) ? ((double) failedCalls / calls) : 0;
+    }
+
+    /**
+     * Get latency percentiles of the successful calls of a window.
+     *
+     * @param windowMillis The duration of the window, in milliseconds.
+     * @param percentiles The percentiles, in ascending order, each between
+     * {@code 0} and {@code 100}.
+     * @return The percentile values in nanoseconds, {@code 0} if there was no
+     * call or no latencies are recorded.
+     */
+    public long[] getPercentiles(long windowMillis, double... percentiles) {
+        long[] snapshot = LatencyHistogram.newSnapshot();
+        long current = epoch(System.currentTimeMillis());
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (isInWindow(bucket, current, windowMillis) && (bucket.latencies != null)) {
+                bucket.latencies.addTo(snapshot);
+            }
+        }
+        return LatencyHistogram.getPercentiles(snapshot, percentiles);
+    }
+
+    /**
+     * Remove all recorded calls.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, null);
+        }
+        startMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the bucket of the current period, replacing an outdated one.
+     */
+    private Bucket currentBucket() {
+        long epoch = epoch(System.currentTimeMillis());
+        int index = (int) (epoch % buckets.length());
+        Bucket bucket = buckets.get(index);
+        while ((bucket == null) || (bucket.epoch < epoch)) {
+            Bucket created = new Bucket(epoch, withLatencies);
+            if (buckets.compareAndSet(index, bucket, created)) {
+                return created;
+            }
+            bucket = buckets.get(index);
+        }
+        return bucket;
+    }
+
+    private long epoch(long millis) {
+        return millis / bucketMillis;
+    }
+
+    private boolean isInWindow(Bucket bucket, long currentEpoch, long windowMillis) {
+        long windowBuckets = Math.max(1, windowMillis / bucketMillis);
+        return (bucket != null) && (bucket.epoch <= currentEpoch) && (bucket.epoch > currentEpoch - windowBuckets);
+    }
+
+    /**
+     * The calls of one period.
+     */
+    private static final class Bucket {
+
+        private final long epoch;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failedCalls = new LongAdder();
+        private final LatencyHistogram latencies;
+
+        Bucket(long epoch, boolean withLatencies) {
+            this.epoch = epoch;
+            latencies = withLatencies ? new LatencyHistogram() : null;
+        }
+    }
+}
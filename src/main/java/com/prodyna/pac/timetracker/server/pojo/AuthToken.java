@@ -0,0 +1,70 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.pojo;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * A bearer token for authenticating the following calls by the header
+ * {@code Authorization: Bearer <token>}, instead of sending the credentials
+ * each time.
+ *
+ * @author apatrikis
+ */
+@XmlRootElement
+public class AuthToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String token;
+    private Date expiresAt;
+
+    /**
+     * Default constructor, required for {@code JSON} handling.
+     */
+    public AuthToken() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param token The signed token.
+     * @param expiresAt The expiry of the token.
+     */
+    public AuthToken(String token, Date expiresAt) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return The signed token.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @param token The signed token.
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return The expiry of the token.
+     */
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @param expiresAt The expiry of the token.
+     */
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
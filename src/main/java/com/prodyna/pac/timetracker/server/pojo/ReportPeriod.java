@@ -0,0 +1,60 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.pojo;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * The periods that can be used for grouping report values.
+ *
+ * @author apatrikis
+ */
+public enum ReportPeriod {
+
+    /**
+     * Group by calendar day.
+     */
+    DAY,
+    /**
+     * Group by {@code ISO} week, starting on monday.
+     */
+    WEEK,
+    /**
+     * Group by calendar month.
+     */
+    MONTH;
+
+    /**
+     * Get the first day of the period that contains the provided day.
+     *
+     * @param day The day.
+     * @return The first day of the period.
+     */
+    public LocalDate startOf(LocalDate day) {
+        switch (this) {
+            case WEEK:
+                return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return day.withDayOfMonth(1);
+            default:
+                return day;
+        }
+    }
+
+    /**
+     * Parse a period name, ignoring the case. This is used by {@code JAX-RS}
+     * for converting path parameters.
+     *
+     * @param name The period name, like {@code "week"}.
+     * @return The matching {@link ReportPeriod}.
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    public static ReportPeriod fromString(String name) {
+        return valueOf(name.toUpperCase(Locale.ENGLISH));
+    }
+}
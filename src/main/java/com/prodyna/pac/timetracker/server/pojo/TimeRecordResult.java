@@ -0,0 +1,124 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.pojo;
+
+import com.prodyna.pac.timetracker.entity.TimeRecord;
+import java.io.Serializable;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * The result for one {@link TimeRecord} of a batch: either the
+ * {@code primary key} of the created or changed entry, or the reason why it
+ * was rejected. For an accepted entry the owner and project are set, which
+ * are needed for notifications.
+ *
+ * @author apatrikis
+ */
+@XmlRootElement
+public class TimeRecordResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int index;
+    private String id;
+    private String error;
+    private String ownerEmail;
+    private String projectId;
+
+    /**
+     * Default constructor, required for {@code JSON} handling.
+     */
+    public TimeRecordResult() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param index The position of the {@link TimeRecord} in the batch.
+     */
+    public TimeRecordResult(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @return The position of the {@link TimeRecord} in the batch.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @param index The position of the {@link TimeRecord} in the batch.
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @return The {@code primary key} of the created or changed
+     * {@link TimeRecord}, {@code null} if it was rejected.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @param id The {@code primary key} of the created or changed
+     * {@link TimeRecord}.
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The reason why the {@link TimeRecord} was rejected,
+     * {@code null} if it was accepted.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @param error The reason why the {@link TimeRecord} was rejected.
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * @return The email of the owner of an accepted {@link TimeRecord}.
+     */
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    /**
+     * @param ownerEmail The email of the owner of an accepted
+     * {@link TimeRecord}.
+     */
+    public void setOwnerEmail(String ownerEmail) {
+        this.ownerEmail = ownerEmail;
+    }
+
+    /**
+     * @return The project id of an accepted {@link TimeRecord}.
+     */
+    public String getProjectId() {
+        return projectId;
+    }
+
+    /**
+     * @param projectId The project id of an accepted {@link TimeRecord}.
+     */
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeRecordResult{" + "index=" + index + ", id=" + id + ", error=" + error
+                + ", ownerEmail=" + ownerEmail + ", projectId=" + projectId + '}';
+    }
+}
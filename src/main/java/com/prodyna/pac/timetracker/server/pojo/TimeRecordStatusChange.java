@@ -0,0 +1,77 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.pojo;
+
+import com.prodyna.pac.timetracker.entity.TimeRecord;
+import com.prodyna.pac.timetracker.entity.TimeRecordStatus;
+import java.io.Serializable;
+import java.util.List;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * A workflow transition for a list of {@link TimeRecord}s, e. g. approving
+ * the bookings of a month: all entries are set to the same
+ * {@link TimeRecordStatus}.
+ *
+ * @author apatrikis
+ */
+@XmlRootElement
+public class TimeRecordStatusChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<String> ids;
+    private TimeRecordStatus recordStatus;
+
+    /**
+     * Default constructor, required for {@code JSON} handling.
+     */
+    public TimeRecordStatusChange() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param ids The {@code primary key}s of the {@link TimeRecord}s.
+     * @param recordStatus The new status.
+     */
+    public TimeRecordStatusChange(List<String> ids, TimeRecordStatus recordStatus) {
+        this.ids = ids;
+        this.recordStatus = recordStatus;
+    }
+
+    /**
+     * @return The {@code primary key}s of the {@link TimeRecord}s.
+     */
+    public List<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * @param ids The {@code primary key}s of the {@link TimeRecord}s.
+     */
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * @return The new status.
+     */
+    public TimeRecordStatus getRecordStatus() {
+        return recordStatus;
+    }
+
+    /**
+     * @param recordStatus The new status.
+     */
+    public void setRecordStatus(TimeRecordStatus recordStatus) {
+        this.recordStatus = recordStatus;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeRecordStatusChange{" + "ids=" + ids + ", recordStatus=" + recordStatus + '}';
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.pojo;
+
+import com.prodyna.pac.timetracker.entity.TimeRecord;
+import com.prodyna.pac.timetracker.entity.TimeRecordStatus;
+import java.io.Serializable;
+import java.util.Date;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * The summed up net booking time of {@link TimeRecord}s for one period,
+ * project and {@link TimeRecordStatus}. The net time is the booked time range
+ * minus the pause.
+ *
+ * @author apatrikis
+ */
+@XmlRootElement
+public class TimeRecordTotal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Date periodStart;
+    private String projectId;
+    private TimeRecordStatus recordStatus;
+    private long netMinutes;
+    private long recordCount;
+
+    /**
+     * Default constructor, required for {@code JSON} handling.
+     */
+    public TimeRecordTotal() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param periodStart The first day of the period.
+     * @param projectId The {@code primary key} of the project.
+     * @param recordStatus The status of the summed up {@link TimeRecord}s.
+     */
+    public TimeRecordTotal(Date periodStart, String projectId, TimeRecordStatus recordStatus) {
+        this.periodStart = periodStart;
+        this.projectId = projectId;
+        this.recordStatus = recordStatus;
+    }
+
+    /**
+     * Add values to the totals.
+     *
+     * @param netMinutes The net minutes to add.
+     * @param recordCount The number of {@link TimeRecord}s to add.
+     */
+    public void add(long netMinutes, long recordCount) {
+        this.netMinutes += netMinutes;
+        this.recordCount += recordCount;
+    }
+
+    public Date getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(Date periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public TimeRecordStatus getRecordStatus() {
+        return recordStatus;
+    }
+
+    public void setRecordStatus(TimeRecordStatus recordStatus) {
+        this.recordStatus = recordStatus;
+    }
+
+    public long getNetMinutes() {
+        return netMinutes;
+    }
+
+    public void setNetMinutes(long netMinutes) {
+        this.netMinutes = netMinutes;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeRecordTotal{" + "periodStart=" + periodStart + ", projectId=" + projectId
+                + ", recordStatus=" + recordStatus + ", netMinutes=" + netMinutes + ", recordCount=" + recordCount + '}';
+    }
+}
@@ -0,0 +1,9 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+/**
+ * Package with data transfer objects that are only used by the server, like
+ * reporting results.
+ */
+package com.prodyna.pac.timetracker.server.pojo;
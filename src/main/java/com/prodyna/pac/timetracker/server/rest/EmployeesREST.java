@@ -25,6 +25,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -135,14 +136,18 @@ public class EmployeesREST extends AbstractREST {
      * <li>last name</li>
      * <li>email</li>
      * </ul>
+     * @param offset The number of matching entries to skip.
+     * @param limit The maximum number of entries to return, {@code 0} for no
+     * limit.
      * @return The {@link List} of matching {@link Employee}s.
      */
     @GET
     @Path("find/{searchPattern}")
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({EmployeeRole.ROLE_ADMIN, EmployeeRole.ROLE_MANAGER})
-    public Response find(@PathParam("searchPattern") String searchPattern) {
-        List<Employee> employees = employeeServices.find(searchPattern);
+    public Response find(@PathParam("searchPattern") String searchPattern,
+            @QueryParam("offset") int offset, @QueryParam("limit") int limit) {
+        List<Employee> employees = employeeServices.find(searchPattern, offset, limit);
         GenericEntity<List<Employee>> responseEntity = new GenericEntity<List<Employee>>(employees) {
         };
         return Response.ok(responseEntity).build();
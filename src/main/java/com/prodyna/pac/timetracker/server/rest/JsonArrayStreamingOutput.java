@@ -0,0 +1,121 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.rest;
+
+import com.prodyna.pac.timetracker.server.exception.SearchParametersException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+
+/**
+ * A {@link StreamingOutput} that writes a {@code JSON} array, reading the
+ * elements one page at a time. Only a single page is held in memory, no matter
+ * how many elements are written. Every element is serialized by the
+ * {@link MessageBodyWriter} that {@code JAX-RS} uses for single entities.
+ *
+ * @param <T> The element type.
+ * @author apatrikis
+ */
+public class JsonArrayStreamingOutput<T> implements StreamingOutput {
+
+    /**
+     * Reads a page of elements.
+     *
+     * @param <T> The element type.
+     */
+    @FunctionalInterface
+    public interface PageReader<T> {
+
+        /**
+         * Read the next page.
+         *
+         * @param after The key of the last element of the previous page, or
+         * {@code null} for the first page.
+         * @param limit The maximum number of elements to read.
+         * @return The elements, ordered by key.
+         * @throws SearchParametersException if the search is invalid.
+         */
+        List<T> read(String after, int limit) throws SearchParametersException;
+    }
+
+    private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+
+    private final Class<T> elementType;
+    private final PageReader<T> pageReader;
+    private final Function<T, String> keyOf;
+    private final int pageSize;
+    private final MessageBodyWriter<T> writer;
+
+    /**
+     * Constructor.
+     *
+     * @param elementType The element type.
+     * @param pageReader Reads the elements one page at a time.
+     * @param keyOf Provides the key of an element, which is passed to the
+     * {@link PageReader} for reading the next page.
+     * @param pageSize The number of elements to read at once.
+     * @param providers The {@link Providers} for looking up the
+     * {@link MessageBodyWriter}.
+     */
+    public JsonArrayStreamingOutput(Class<T> elementType, PageReader<T> pageReader, Function<T, String> keyOf,
+            int pageSize, Providers providers) {
+        this.elementType = elementType;
+        this.pageReader = pageReader;
+        this.keyOf = keyOf;
+        this.pageSize = pageSize;
+        this.writer = providers.getMessageBodyWriter(elementType, elementType, new Annotation[0], MediaType.APPLICATION_JSON_TYPE);
+        if (writer == null) {
+            throw new InternalServerErrorException("No JSON writer available for " + elementType.getName());
+        }
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        ByteArrayOutputStream element = new ByteArrayOutputStream(1024);
+        String after = null;
+        boolean first = true;
+
+        output.write(ARRAY_START);
+        List<T> page;
+        do {
+            try {
+                page = pageReader.read(after, pageSize);
+            }
+            catch (SearchParametersException spe) {
+                throw new InternalServerErrorException(spe.getMessage(), spe);
+            }
+
+            for (T entity : page) {
+                if (!first) {
+                    output.write(ARRAY_SEPARATOR);
+                }
+                first = false;
+
+                // the writer may close the stream it writes to, so use a buffer per element
+                element.reset();
+                writer.writeTo(entity, elementType, elementType, new Annotation[0], MediaType.APPLICATION_JSON_TYPE,
+                        new MultivaluedHashMap<>(), element);
+                element.writeTo(output);
+            }
+            if (!page.isEmpty()) {
+                after = keyOf.apply(page.get(page.size() - 1));
+            }
+        } while (page.size() == pageSize);
+        output.write(ARRAY_END);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.rest;
+
+import com.prodyna.pac.timetracker.server.monitoring.AbstractBusinessServiceMonitor;
+import com.prodyna.pac.timetracker.server.monitoring.MetricsExporter;
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * {@code REST Interface} for scraping the values of all
+ * {@link AbstractBusinessServiceMonitor}s in the {@code Prometheus} text
+ * exposition format. The {@code REST Interface} is available under
+ * {@link RESTConfig#METRICS_PATH}.
+ * <p/>
+ * This class does not extend {@link AbstractREST}, so scraping does not show
+ * up in the monitored calls.
+ *
+ * @author apatrikis
+ */
+@Path(RESTConfig.METRICS_PATH)
+@Stateless
+public class MetricsREST {
+
+    @Inject
+    private MetricsExporter metricsExporter;
+
+    /**
+     * Get the values of all monitors.
+     *
+     * @return The values in the text exposition format.
+     */
+    @GET
+    @Produces(MetricsExporter.CONTENT_TYPE)
+    public String getMetrics() {
+        return metricsExporter.render();
+    }
+}
@@ -15,6 +15,7 @@ import com.prodyna.pac.timetracker.server.service.EmployeeServices;
 import com.prodyna.pac.timetracker.server.service.Project2EmployeeServices;
 import com.prodyna.pac.timetracker.server.service.ProjectServices;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.Stateless;
@@ -86,6 +87,47 @@ public class Projects2EmployeesREST extends AbstractREST {
         return Response.created(newObjectURI).build();
     }
 
+    /**
+     * Assign a list of {@link Project}s to a {@link Employee}, which is
+     * identified by it's {@code email}. All assignments are created in one
+     * transaction, either all or none.
+     *
+     * @param email The {@link Employee}s {@code email}.
+     * @param projects The {@link Project}s to assign.
+     * @return The {@link List} of created relations with the stored
+     * entities, {@link Response.Status#BAD_REQUEST} if no {@link Project} is
+     * provided, or {@link Response.Status#NOT_FOUND} if the {@link Employee}
+     * does not exist.
+     * @throws PrimaryKeyException if the {@link Employee} is already assigned
+     * to one of the {@link Project}s, or a {@link Project} does not exist.
+     */
+    @POST
+    @Path(RESTConfig.EMPLOYEES_PATH + "/{email}/" + RESTConfig.PROJECTS_PATH + "/" + RESTConfig.BATCH_PATH)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed(EmployeeRole.ROLE_MANAGER)
+    public Response assignProjects(@PathParam("email") String email, List<Project> projects) throws PrimaryKeyException {
+        if ((projects == null) || projects.isEmpty() || projects.contains(null)) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        Employee employee = employeeServices.read(email);
+        if (employee == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        List<Project2Employee> assignments = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            Project2Employee psm = new Project2Employee();
+            psm.setProject(project);
+            psm.setEmployee(employee);
+            assignments.add(psm);
+        }
+        projectEmployeeServices.createAll(assignments);
+        GenericEntity<List<Project2Employee>> responseEntity = new GenericEntity<List<Project2Employee>>(assignments) {
+        };
+        return Response.ok(responseEntity).build();
+    }
+
     /**
      * Read all {@link Project}s assigned to a {@link Employee}, which is
      * identified by it's {@code email}.
@@ -160,6 +202,47 @@ public class Projects2EmployeesREST extends AbstractREST {
         return Response.created(newObjectURI).build();
     }
 
+    /**
+     * Assign a list of {@link Employee}s to a {@link Project}, which is
+     * identified by it's {@code project ID}. All assignments are created in
+     * one transaction, either all or none.
+     *
+     * @param projectID The {@link Project}s {@code project ID}.
+     * @param employees The {@link Employee}s to assign.
+     * @return The {@link List} of created relations with the stored
+     * entities, {@link Response.Status#BAD_REQUEST} if no {@link Employee} is
+     * provided, or {@link Response.Status#NOT_FOUND} if the {@link Project}
+     * does not exist.
+     * @throws PrimaryKeyException if one of the {@link Employee}s is already
+     * assigned to the {@link Project}, or an {@link Employee} does not exist.
+     */
+    @POST
+    @Path(RESTConfig.PROJECTS_PATH + "/{projectid}/" + RESTConfig.EMPLOYEES_PATH + "/" + RESTConfig.BATCH_PATH)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed(EmployeeRole.ROLE_MANAGER)
+    public Response assignEmployees(@PathParam("projectid") String projectID, List<Employee> employees) throws PrimaryKeyException {
+        if ((employees == null) || employees.isEmpty() || employees.contains(null)) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        Project project = projectServices.readReference(projectID);
+        if (project == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        List<Project2Employee> assignments = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            Project2Employee psm = new Project2Employee();
+            psm.setProject(project);
+            psm.setEmployee(employee);
+            assignments.add(psm);
+        }
+        projectEmployeeServices.createAll(assignments);
+        GenericEntity<List<Project2Employee>> responseEntity = new GenericEntity<List<Project2Employee>>(assignments) {
+        };
+        return Response.ok(responseEntity).build();
+    }
+
     /**
      * Read all {@link Employee}s assigned to a {@link Project}, which is
      * identified by it's {@code project ID}.
@@ -24,6 +24,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -139,14 +140,18 @@ public class ProjectsREST extends AbstractREST {
      * <li>project title</li>
      * <li>project description</li>
      * </ul>
+     * @param offset The number of matching entries to skip.
+     * @param limit The maximum number of entries to return, {@code 0} for no
+     * limit.
      * @return The {@link List} of matching {@link Project}s.
      */
     @GET
     @Path("find/{searchPattern}")
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({EmployeeRole.ROLE_ADMIN, EmployeeRole.ROLE_MANAGER})
-    public Response find(@PathParam("searchPattern") String searchPattern) {
-        List<Project> projects = projectService.find(searchPattern);
+    public Response find(@PathParam("searchPattern") String searchPattern,
+            @QueryParam("offset") int offset, @QueryParam("limit") int limit) {
+        List<Project> projects = projectService.find(searchPattern, offset, limit);
         GenericEntity<List<Project>> responseEntity = new GenericEntity<List<Project>>(projects) {
         };
         return Response.ok(responseEntity).build();
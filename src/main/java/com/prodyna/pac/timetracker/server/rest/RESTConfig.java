@@ -29,6 +29,11 @@ public class RESTConfig extends Application {
      */
     public static final String STATUS_PATH = "status";
 
+    /**
+     * {@code REST} path for {@code metrics REST Interface}.
+     */
+    public static final String METRICS_PATH = "metrics";
+
     /**
      * {@code REST} path for {@code employees REST Interface}.
      */
@@ -58,4 +63,9 @@ public class RESTConfig extends Application {
      * {@code REST} path for {@code security REST Interface}.
      */
     public static final String SECURITY_PATH = "security";
+
+    /**
+     * {@code REST} sub path for actions on a list of entities.
+     */
+    public static final String BATCH_PATH = "batch";
 }
@@ -9,19 +9,27 @@ import com.prodyna.pac.timetracker.entity.EmployeeRole;
 import com.prodyna.pac.timetracker.pojo.ChangePassword;
 import com.prodyna.pac.timetracker.server.exception.PasswordChangeException;
 import com.prodyna.pac.timetracker.server.monitoring.BusinessServiceMXBean;
+import com.prodyna.pac.timetracker.server.pojo.AuthToken;
+import com.prodyna.pac.timetracker.server.security.BearerTokens;
+import com.prodyna.pac.timetracker.server.security.CachingBasicAuthModule;
 import com.prodyna.pac.timetracker.server.service.EmployeeServices;
 import com.prodyna.pac.timetracker.server.service.SecurityServices;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import javax.annotation.Resource;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -95,6 +103,40 @@ public class SecurityREST extends AbstractREST {
         return employeeServices.read(ctx.getCallerPrincipal().getName());
     }
 
+    /**
+     * Create a bearer token for the logged in {@link Employee}. The token
+     * contains the email and roles and can be sent by the header
+     * {@code Authorization: Bearer <token>} instead of the credentials, until
+     * it expires or the password or roles of the {@link Employee} are changed.
+     * <p/>
+     * A token is only created for a caller authenticated by {@code BASIC}
+     * credentials, so a token cannot be renewed without the password.
+     *
+     * @param request The {@link HttpServletRequest}, for the used
+     * authentication scheme.
+     * @return The {@link AuthToken}, or {@link Response.Status#FORBIDDEN} if
+     * the caller was authenticated by a bearer token.
+     */
+    @POST
+    @Path("token")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({EmployeeRole.ROLE_ADMIN, EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
+    public Response createToken(@Context HttpServletRequest request) {
+        if (!CachingBasicAuthModule.SCHEME_BASIC.equals(request.getAttribute(CachingBasicAuthModule.AUTH_SCHEME_ATTRIBUTE))) {
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+
+        List<String> roleNames = new ArrayList<>();
+        for (EmployeeRole role : EmployeeRole.values()) {
+            if (ctx.isCallerInRole(role.toString())) {
+                roleNames.add(role.toString());
+            }
+        }
+
+        BearerTokens.Claims claims = BearerTokens.create(ctx.getCallerPrincipal().getName(), roleNames.toArray(new String[roleNames.size()]));
+        return Response.ok(new AuthToken(BearerTokens.encode(claims), new Date(claims.getExpiresAt()))).build();
+    }
+
     /**
      * Change the password of a user.
      *
@@ -7,25 +7,36 @@ package com.prodyna.pac.timetracker.server.rest;
 import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.EmployeeRole;
 import com.prodyna.pac.timetracker.entity.Project;
-import com.prodyna.pac.timetracker.entity.Project2Employee;
 import com.prodyna.pac.timetracker.entity.TimeRecord;
 import com.prodyna.pac.timetracker.entity.TimeRecordStatus;
 import com.prodyna.pac.timetracker.pojo.TimeRecordSearch;
+import com.prodyna.pac.timetracker.server.cache.ProjectMetadata;
+import com.prodyna.pac.timetracker.server.cache.ProjectMetadataCache;
 import com.prodyna.pac.timetracker.server.event.BookingForApporvalEvent;
 import com.prodyna.pac.timetracker.server.event.BookingForReworkEvent;
 import com.prodyna.pac.timetracker.server.exception.EntityDataException;
 import com.prodyna.pac.timetracker.server.exception.SearchParametersException;
 import com.prodyna.pac.timetracker.server.monitoring.BusinessServiceMXBean;
 import com.prodyna.pac.timetracker.server.monitoring.TimeRecordsMonitor;
+import com.prodyna.pac.timetracker.server.pojo.ReportPeriod;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordResult;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordStatusChange;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordTotal;
 import com.prodyna.pac.timetracker.server.service.EmployeeServices;
 import com.prodyna.pac.timetracker.server.service.Project2EmployeeServices;
 import com.prodyna.pac.timetracker.server.service.ProjectServices;
 import com.prodyna.pac.timetracker.server.service.TimeRecordServices;
+import com.prodyna.pac.timetracker.server.tracing.Span;
+import com.prodyna.pac.timetracker.server.tracing.Tracer;
 import java.net.URI;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.Stateless;
 import javax.enterprise.event.Event;
@@ -38,14 +49,22 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
 
 /**
  * {@code REST Interface} for {@link TimeRecord} related actions. The
  * {@code REST Interface} is available under
  * {@link RESTConfig#TIMERECORDS_PATH}.
+ * <p/>
+ * All methods returning a {@link List} support keyset pagination with the
+ * query parameters {@code after} and {@code limit}: the result is ordered by
+ * {@code primary key}, and the next page is read by passing the
+ * {@code primary key} of the last entry as {@code after}.
  *
  * @author apatrikis
  */
@@ -53,6 +72,12 @@ import javax.ws.rs.core.Response;
 @Stateless
 public class TimeRecordsREST extends AbstractREST {
 
+    /**
+     * The number of entries read at once when streaming all
+     * {@link TimeRecord}s.
+     */
+    private static final int STREAM_PAGE_SIZE = 500;
+
     @Inject
     private TimeRecordServices timeRecordServices;
 
@@ -65,6 +90,9 @@ public class TimeRecordsREST extends AbstractREST {
     @Inject
     private Project2EmployeeServices projectEmployeeServices;
 
+    @Inject
+    private ProjectMetadataCache projectMetadataCache;
+
     @Inject
     private TimeRecordsMonitor jmxMonitor;
 
@@ -93,9 +121,12 @@ public class TimeRecordsREST extends AbstractREST {
 
         // notify manager
         if (timeRecord.getRecordStatus() == TimeRecordStatus.READY_FOR_APPROVAL) {
-            if (approvalEvent != null) {
+            String managerEmail = getProjectOwnerEmail(timeRecord.getProject().getProjectId());
+            if ((approvalEvent != null) && (managerEmail != null)) {
                 String msg = String.format("%s crated a new booking for approval in project %s", timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId());
-                approvalEvent.fire(new BookingForApporvalEvent(timeRecord.getProject().getOwner().getEmail(), msg));
+                try (Span span = Tracer.startSpan("approvalEvent.fire")) {
+                    approvalEvent.fire(new BookingForApporvalEvent(managerEmail, msg));
+                }
             }
         }
 
@@ -103,6 +134,53 @@ public class TimeRecordsREST extends AbstractREST {
         return Response.created(newObjectURI).build();
     }
 
+    /**
+     * Store a list of {@link TimeRecord} entries in one transaction, e. g. the
+     * bookings of a week. Each entry is checked like by
+     * {@link #createOne(TimeRecord)} and against the other entries of the
+     * list; rejected entries are skipped and reported.
+     *
+     * @param timeRecords The {@link TimeRecord}s to store.
+     * @return The {@link List} of {@link TimeRecordResult}s, in the order of
+     * the provided entries.
+     */
+    @POST
+    @Path(RESTConfig.BATCH_PATH)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed(EmployeeRole.ROLE_USER)
+    public Response createAll(List<TimeRecord> timeRecords) {
+        List<TimeRecordResult> results = timeRecordServices.createAll(timeRecords);
+
+        // notify managers, once per project
+        if (approvalEvent != null) {
+            Map<String, TimeRecord> forApproval = new LinkedHashMap<>();
+            Map<String, Integer> counts = new HashMap<>();
+            for (TimeRecordResult result : results) {
+                TimeRecord timeRecord = timeRecords.get(result.getIndex());
+                if ((result.getId() != null) && (timeRecord.getRecordStatus() == TimeRecordStatus.READY_FOR_APPROVAL)) {
+                    forApproval.putIfAbsent(timeRecord.getProject().getProjectId(), timeRecord);
+                    counts.merge(timeRecord.getProject().getProjectId(), 1, Integer::sum);
+                }
+            }
+            for (TimeRecord timeRecord : forApproval.values()) {
+                String managerEmail = getProjectOwnerEmail(timeRecord.getProject().getProjectId());
+                if (managerEmail == null) {
+                    continue; // deleted in the meantime
+                }
+                String msg = String.format("%s crated %d new bookings for approval in project %s", timeRecord.getOwner().getEmail(),
+                        counts.get(timeRecord.getProject().getProjectId()), timeRecord.getProject().getProjectId());
+                try (Span span = Tracer.startSpan("approvalEvent.fire")) {
+                    approvalEvent.fire(new BookingForApporvalEvent(managerEmail, msg));
+                }
+            }
+        }
+
+        GenericEntity<List<TimeRecordResult>> responseEntity = new GenericEntity<List<TimeRecordResult>>(results) {
+        };
+        return Response.ok(responseEntity).build();
+    }
+
     /**
      * Retrieve a {@link TimeRecord} entry.
      *
@@ -139,22 +217,93 @@ public class TimeRecordsREST extends AbstractREST {
 
         // notify manager
         if (timeRecord.getRecordStatus() == TimeRecordStatus.READY_FOR_APPROVAL) {
-            if (approvalEvent != null) {
+            String managerEmail = getProjectOwnerEmail(timeRecord.getProject().getProjectId());
+            if ((approvalEvent != null) && (managerEmail != null)) {
                 String msg = String.format("%s edited a booking for approval in project %s", timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId());
-                approvalEvent.fire(new BookingForApporvalEvent(timeRecord.getProject().getOwner().getEmail(), msg));
+                try (Span span = Tracer.startSpan("approvalEvent.fire")) {
+                    approvalEvent.fire(new BookingForApporvalEvent(managerEmail, msg));
+                }
             }
         }
         // notify employee
         if (timeRecord.getRecordStatus() == TimeRecordStatus.REWORK) {
             if (reworkEvent != null) {
                 String msg = String.format("A booking is set for rework in project %s", timeRecord.getProject().getProjectId());
-                reworkEvent.fire(new BookingForReworkEvent(timeRecord.getOwner().getEmail(), msg));
+                try (Span span = Tracer.startSpan("reworkEvent.fire")) {
+                    reworkEvent.fire(new BookingForReworkEvent(timeRecord.getOwner().getEmail(), msg));
+                }
             }
         }
 
         return Response.ok().build();
     }
 
+    /**
+     * Change the {@link TimeRecordStatus} of a list of {@link TimeRecord}
+     * entries in one transaction, e. g. for approving the bookings of a month.
+     * Only the status is changed; rejected entries are skipped and reported.
+     * Each recipient gets one notification for all changed entries.
+     *
+     * @param statusChange The {@code primary key}s and the new status.
+     * @return The {@link List} of {@link TimeRecordResult}s, in the order of
+     * the provided {@code primary key}s.
+     * @throws EntityDataException if the {@code primary key}s or the new
+     * status are not specified, or an entry was changed concurrently.
+     */
+    @PUT
+    @Path(RESTConfig.BATCH_PATH + "/status")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
+    public Response changeStatus(TimeRecordStatusChange statusChange) throws EntityDataException {
+        List<TimeRecordResult> results = timeRecordServices.changeStatus(statusChange.getIds(), statusChange.getRecordStatus());
+
+        // the number of changed entries per recipient and project
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (TimeRecordResult result : results) {
+            if (result.getId() != null) {
+                counts.computeIfAbsent(result.getOwnerEmail(), e -> new TreeMap<>()).merge(result.getProjectId(), 1, Integer::sum);
+            }
+        }
+
+        // notify managers
+        if ((statusChange.getRecordStatus() == TimeRecordStatus.READY_FOR_APPROVAL) && (approvalEvent != null)) {
+            Map<String, StringBuilder> messages = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> owner : counts.entrySet()) {
+                for (Map.Entry<String, Integer> project : owner.getValue().entrySet()) {
+                    ProjectMetadata metadata = projectMetadataCache.get(project.getKey());
+                    if (metadata == null) {
+                        continue; // deleted in the meantime
+                    }
+                    String managerEmail = metadata.getOwnerEmail();
+                    StringBuilder msg = messages.computeIfAbsent(managerEmail, m -> new StringBuilder("New bookings for approval:"));
+                    msg.append(String.format(" %s %d in project %s;", owner.getKey(), project.getValue(), project.getKey()));
+                }
+            }
+            for (Map.Entry<String, StringBuilder> msg : messages.entrySet()) {
+                try (Span span = Tracer.startSpan("approvalEvent.fire")) {
+                    approvalEvent.fire(new BookingForApporvalEvent(msg.getKey(), msg.getValue().toString()));
+                }
+            }
+        }
+        // notify employees
+        if ((statusChange.getRecordStatus() == TimeRecordStatus.REWORK) && (reworkEvent != null)) {
+            for (Map.Entry<String, Map<String, Integer>> owner : counts.entrySet()) {
+                StringBuilder msg = new StringBuilder("Bookings are set for rework:");
+                for (Map.Entry<String, Integer> project : owner.getValue().entrySet()) {
+                    msg.append(String.format(" %d in project %s;", project.getValue(), project.getKey()));
+                }
+                try (Span span = Tracer.startSpan("reworkEvent.fire")) {
+                    reworkEvent.fire(new BookingForReworkEvent(owner.getKey(), msg.toString()));
+                }
+            }
+        }
+
+        GenericEntity<List<TimeRecordResult>> responseEntity = new GenericEntity<List<TimeRecordResult>>(results) {
+        };
+        return Response.ok(responseEntity).build();
+    }
+
     /**
      * Delete a {@link TimeRecord} entry.
      *
@@ -175,8 +324,19 @@ public class TimeRecordsREST extends AbstractREST {
     }
 
     /**
-     * Read all {@link TimeRecord}s.
+     * Read all {@link TimeRecord}s. With {@code stream=true} the entries are
+     * written while they are read from the database, in pages of
+     * {@value #STREAM_PAGE_SIZE} entries, so the memory used does not depend on
+     * the number of entries.
      *
+     * @param after The {@code primary key} of the last entry of the previous
+     * page, or {@code null} to start with the first entry.
+     * @param limit The maximum number of entries to return, {@code 0} for no
+     * limit.
+     * @param stream {@code true} for streaming all entries, which ignores
+     * {@code after} and {@code limit}.
+     * @param providers The {@link Providers} used for serializing streamed
+     * entries.
      * @return The {@link List} of {@link TimeRecord}s.
      * @throws SearchParametersException e. g. if the {@link Project} or
      * {@link Employee} is not specified.
@@ -184,8 +344,16 @@ public class TimeRecordsREST extends AbstractREST {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed(EmployeeRole.ROLE_ADMIN)
-    public Response readAll() throws SearchParametersException {
-        List<TimeRecord> timeRecords = timeRecordServices.find(null);
+    public Response readAll(@QueryParam("after") String after, @QueryParam("limit") int limit,
+            @QueryParam("stream") boolean stream, @Context Providers providers) throws SearchParametersException {
+        if (stream) {
+            JsonArrayStreamingOutput<TimeRecord> output = new JsonArrayStreamingOutput<>(TimeRecord.class,
+                    (pageAfter, pageLimit) -> timeRecordServices.find(null, pageAfter, pageLimit),
+                    TimeRecord::getId, STREAM_PAGE_SIZE, providers);
+            return Response.ok(output).build();
+        }
+
+        List<TimeRecord> timeRecords = timeRecordServices.find(null, after, limit);
         GenericEntity<List<TimeRecord>> responseEntity = new GenericEntity<List<TimeRecord>>(timeRecords) {
         };
         return Response.ok(responseEntity).build();
@@ -195,6 +363,10 @@ public class TimeRecordsREST extends AbstractREST {
      * Read all {@link TimeRecord}s for the specified owner.
      *
      * @param ownerEMail The {@code primary key}.
+     * @param after The {@code primary key} of the last entry of the previous
+     * page, or {@code null} to start with the first entry.
+     * @param limit The maximum number of entries to return, {@code 0} for no
+     * limit.
      * @return The {@link List} of {@link TimeRecord}s that belong to the owner.
      * @throws SearchParametersException <i>this will never be thrown for this
      * method</i>
@@ -203,14 +375,19 @@ public class TimeRecordsREST extends AbstractREST {
     @Path("find/owner/{email}")
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
-    public Response findByOwner(@PathParam("email") String ownerEMail) throws SearchParametersException {
-        return find(ownerEMail, null, null, null);
+    public Response findByOwner(@PathParam("email") String ownerEMail,
+            @QueryParam("after") String after, @QueryParam("limit") int limit) throws SearchParametersException {
+        return find(ownerEMail, null, null, null, after, limit);
     }
 
     /**
      * Read all {@link TimeRecord}s for the specified project.
      *
      * @param projectID The {@code primary key}.
+     * @param after The {@code primary key} of the last entry of the previous
+     * page, or {@code null} to start with the first entry.
+     * @param limit The maximum number of entries to return, {@code 0} for no
+     * limit.
      * @return The {@link List} of {@link TimeRecord}s that belong to the
      * project.
      * @throws SearchParametersException <i>this will never be thrown for this
@@ -220,8 +397,9 @@ public class TimeRecordsREST extends AbstractREST {
     @Path("find/project/{id}")
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
-    public Response findByProject(@PathParam("id") String projectID) throws SearchParametersException {
-        return find(null, projectID, null, null);
+    public Response findByProject(@PathParam("id") String projectID,
+            @QueryParam("after") String after, @QueryParam("limit") int limit) throws SearchParametersException {
+        return find(null, projectID, null, null, after, limit);
     }
 
     /**
@@ -229,6 +407,10 @@ public class TimeRecordsREST extends AbstractREST {
      *
      * @param ownerEMail The {@code primary key}.
      * @param projectID The {@code primary key}.
+     * @param after The {@code primary key} of the last entry of the previous
+     * page, or {@code null} to start with the first entry.
+     * @param limit The maximum number of entries to return, {@code 0} for no
+     * limit.
      * @return The {@link List} of {@link TimeRecord}s that belong to the owner
      * and project.
      * @throws SearchParametersException <i>this will never be thrown for this
@@ -238,8 +420,9 @@ public class TimeRecordsREST extends AbstractREST {
     @Path("find/owner/{email}/project/{id}")
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
-    public Response find(@PathParam("email") String ownerEMail, @PathParam("id") String projectID) throws SearchParametersException {
-        return find(ownerEMail, projectID, null, null);
+    public Response find(@PathParam("email") String ownerEMail, @PathParam("id") String projectID,
+            @QueryParam("after") String after, @QueryParam("limit") int limit) throws SearchParametersException {
+        return find(ownerEMail, projectID, null, null, after, limit);
     }
 
     /**
@@ -250,6 +433,10 @@ public class TimeRecordsREST extends AbstractREST {
      * @param projectID The {@code primary key}.
      * @param fromISODateTime The begin of the time frame.
      * @param throughISODateTime The end of the time frame.
+     * @param after The {@code primary key} of the last entry of the previous
+     * page, or {@code null} to start with the first entry.
+     * @param limit The maximum number of entries to return, {@code 0} for no
+     * limit.
      * @return The {@link List} of {@link TimeRecord}s that belong to the owner
      * and project in the given time frame.
      * @throws SearchParametersException e. g. is the provided timestamps are
@@ -260,14 +447,123 @@ public class TimeRecordsREST extends AbstractREST {
     @Produces(MediaType.APPLICATION_JSON)
     @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
     public Response find(@PathParam("email") String ownerEMail, @PathParam("id") String projectID,
+            @PathParam("from") String fromISODateTime, @PathParam("through") String throughISODateTime,
+            @QueryParam("after") String after, @QueryParam("limit") int limit) throws SearchParametersException {
+        TimeRecordSearch searchPattern = createSearchPattern(ownerEMail, projectID, fromISODateTime, throughISODateTime);
+        List<TimeRecord> timeRecords = timeRecordServices.find(searchPattern, after, limit);
+        GenericEntity<List<TimeRecord>> responseEntity = new GenericEntity<List<TimeRecord>>(timeRecords) {
+        };
+        return Response.ok(responseEntity).build();
+    }
+
+    /**
+     * Sum up the net booking time of the specified owner in the given time
+     * frame, grouped by period, project and status.
+     *
+     * @param period The period to group by: {@code day}, {@code week} or
+     * {@code month}.
+     * @param ownerEMail The {@code primary key}.
+     * @param fromISODateTime The begin of the time frame.
+     * @param throughISODateTime The end of the time frame.
+     * @return The {@link List} of {@link TimeRecordTotal}s.
+     * @throws SearchParametersException e. g. is the provided timestamps are
+     * invalid.
+     */
+    @GET
+    @Path("totals/{period}/owner/{email}/from/{from}/through/{through}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
+    public Response totalsByOwner(@PathParam("period") ReportPeriod period, @PathParam("email") String ownerEMail,
             @PathParam("from") String fromISODateTime, @PathParam("through") String throughISODateTime) throws SearchParametersException {
+        return totals(period, ownerEMail, null, fromISODateTime, throughISODateTime);
+    }
+
+    /**
+     * Sum up the net booking time of the specified project in the given time
+     * frame, grouped by period, project and status.
+     *
+     * @param period The period to group by: {@code day}, {@code week} or
+     * {@code month}.
+     * @param projectID The {@code primary key}.
+     * @param fromISODateTime The begin of the time frame.
+     * @param throughISODateTime The end of the time frame.
+     * @return The {@link List} of {@link TimeRecordTotal}s.
+     * @throws SearchParametersException e. g. is the provided timestamps are
+     * invalid.
+     */
+    @GET
+    @Path("totals/{period}/project/{id}/from/{from}/through/{through}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
+    public Response totalsByProject(@PathParam("period") ReportPeriod period, @PathParam("id") String projectID,
+            @PathParam("from") String fromISODateTime, @PathParam("through") String throughISODateTime) throws SearchParametersException {
+        return totals(period, null, projectID, fromISODateTime, throughISODateTime);
+    }
+
+    /**
+     * Sum up the net booking time of the specified owner and project in the
+     * given time frame, grouped by period, project and status.
+     *
+     * @param period The period to group by: {@code day}, {@code week} or
+     * {@code month}.
+     * @param ownerEMail The {@code primary key}.
+     * @param projectID The {@code primary key}.
+     * @param fromISODateTime The begin of the time frame.
+     * @param throughISODateTime The end of the time frame.
+     * @return The {@link List} of {@link TimeRecordTotal}s.
+     * @throws SearchParametersException e. g. is the provided timestamps are
+     * invalid.
+     */
+    @GET
+    @Path("totals/{period}/owner/{email}/project/{id}/from/{from}/through/{through}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RolesAllowed({EmployeeRole.ROLE_MANAGER, EmployeeRole.ROLE_USER})
+    public Response totals(@PathParam("period") ReportPeriod period, @PathParam("email") String ownerEMail, @PathParam("id") String projectID,
+            @PathParam("from") String fromISODateTime, @PathParam("through") String throughISODateTime) throws SearchParametersException {
+        TimeRecordSearch searchPattern = createSearchPattern(ownerEMail, projectID, fromISODateTime, throughISODateTime);
+        List<TimeRecordTotal> totals = timeRecordServices.findTotals(searchPattern, period);
+        GenericEntity<List<TimeRecordTotal>> responseEntity = new GenericEntity<List<TimeRecordTotal>>(totals) {
+        };
+        return Response.ok(responseEntity).build();
+    }
+
+    /**
+     * Recreate the pre-aggregated daily totals, which are used for summing up
+     * the booking time, from all {@link TimeRecord}s.
+     *
+     * @return The {@link Response.Status#OK}.
+     */
+    @POST
+    @Path("totals/rebuild")
+    @RolesAllowed(EmployeeRole.ROLE_ADMIN)
+    public Response rebuildTotals() {
+        timeRecordServices.rebuildDailyTotals();
+        return Response.ok().build();
+    }
+
+    @Override
+    public BusinessServiceMXBean getMonitorBean() {
+        return jmxMonitor;
+    }
+
+    /**
+     * Create a {@link TimeRecordSearch} from {@code REST} parameters.
+     *
+     * @param ownerEMail The {@code primary key}, may be {@code null}.
+     * @param projectID The {@code primary key}, may be {@code null}.
+     * @param fromISODateTime The begin of the time frame, may be {@code null}.
+     * @param throughISODateTime The end of the time frame, may be
+     * {@code null}.
+     * @return The {@link TimeRecordSearch}.
+     */
+    private TimeRecordSearch createSearchPattern(String ownerEMail, String projectID, String fromISODateTime, String throughISODateTime) {
         TimeRecordSearch searchPattern = new TimeRecordSearch();
 
         if (ownerEMail != null) {
             searchPattern.setEmployee(employeeServices.read(ownerEMail));
         }
         if (projectID != null) {
-            searchPattern.setProject(projectServices.read(projectID));
+            searchPattern.setProject(projectServices.readReference(projectID));
         }
         if (fromISODateTime != null) {
             ZonedDateTime zdt = ZonedDateTime.parse(fromISODateTime, DateTimeFormatter.ISO_DATE_TIME);
@@ -277,16 +573,7 @@ public class TimeRecordsREST extends AbstractREST {
             ZonedDateTime zdt = ZonedDateTime.parse(throughISODateTime, DateTimeFormatter.ISO_DATE_TIME);
             searchPattern.setThrough(Date.from(zdt.toInstant()));
         }
-
-        List<TimeRecord> timeRecords = timeRecordServices.find(searchPattern);
-        GenericEntity<List<TimeRecord>> responseEntity = new GenericEntity<List<TimeRecord>>(timeRecords) {
-        };
-        return Response.ok(responseEntity).build();
-    }
-
-    @Override
-    public BusinessServiceMXBean getMonitorBean() {
-        return jmxMonitor;
+        return searchPattern;
     }
 
     /**
@@ -303,10 +590,22 @@ public class TimeRecordsREST extends AbstractREST {
         } else if (employee == null) {
             throw new EntityDataException("The employee is not specified");
         } else {
-            List<Project2Employee> assignments = projectEmployeeServices.find(project, employee);
-            if (assignments.size() != 1) {
+            if (!projectEmployeeServices.isAssigned(project, employee)) {
                 throw new EntityDataException(String.format("The employee [%s] is not assigned to project [%s]", employee.getEmail(), project.getProjectId()));
             }
         }
     }
+
+    /**
+     * Get the email of the {@link Project} manager from the
+     * {@link ProjectMetadataCache}, without loading the {@link Project}.
+     *
+     * @param projectId The {@code primary key} of the {@link Project}.
+     * @return The email, {@code null} if the {@link Project} was deleted in
+     * the meantime.
+     */
+    private String getProjectOwnerEmail(String projectId) {
+        ProjectMetadata metadata = projectMetadataCache.get(projectId);
+        return (metadata != null) ? metadata.getOwnerEmail() : null;
+    }
 }
@@ -0,0 +1,278 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates and verifies stateless bearer tokens. A token carries the email,
+ * the role names, the issue time and the expiry of an authenticated
+ * {@code Employee} and is signed by {@code HMAC-SHA256}, so verifying it needs
+ * no database roundtrip and no server side session.
+ * <p/>
+ * A change of the password or the roles, or deleting the {@code Employee},
+ * revokes all tokens issued before by {@link #revoke(String)}; this is one map
+ * lookup per verification. Revoking is server local: on a cluster, the other
+ * nodes accept the revoked tokens until they expire. The tokens can be
+ * configured by system properties:
+ * <ul>
+ * <li>{@value #SECRET_PROPERTY}: the {@code Base64} encoded signing key of at
+ * least {@value #MIN_SECRET_BYTES} bytes; all nodes of a cluster must use the
+ * same key. If it is not set, a random key is created, so the tokens are only
+ * valid on this node until restart. If it is invalid, an error is logged and
+ * no tokens are issued or accepted.</li>
+ * <li>{@value #TTL_SECONDS_PROPERTY}: the lifetime of a token, defaults to
+ * {@value #DEFAULT_TTL_SECONDS} seconds</li>
+ * </ul>
+ *
+ * @author apatrikis
+ */
+public final class BearerTokens {
+
+    /**
+     * System property for the signing key.
+     */
+    public static final String SECRET_PROPERTY = "timetracker.auth.token.secret";
+
+    /**
+     * System property for the lifetime of a token, in seconds.
+     */
+    public static final String TTL_SECONDS_PROPERTY = "timetracker.auth.token.ttlSeconds";
+
+    /**
+     * Default lifetime of a token, in seconds.
+     */
+    public static final int DEFAULT_TTL_SECONDS = 3600;
+
+    /**
+     * Minimum length of the signing key, in bytes.
+     */
+    public static final int MIN_SECRET_BYTES = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final char SEPARATOR = '\n';
+
+    private static final Logger log = LoggerFactory.getLogger(BearerTokens.class);
+
+    /**
+     * The signing key, {@code null} if the configured key is invalid.
+     */
+    private static final SecretKeySpec KEY = createKey();
+
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(Integer.getInteger(TTL_SECONDS_PROPERTY, DEFAULT_TTL_SECONDS));
+
+    /**
+     * Tokens issued up to this time are rejected, per email; entries are
+     * removed once all tokens they reject are expired.
+     */
+    private static final Map<String, Long> NOT_VALID_UP_TO = new ConcurrentHashMap<>();
+
+    /**
+     * Tokens issued up to this time are rejected, for all emails.
+     */
+    private static volatile long allNotValidUpTo;
+
+    /**
+     * A {@link Mac} is not thread safe, so each thread keeps its own.
+     */
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(KEY);
+            return mac;
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create " + ALGORITHM + ": " + e.getMessage(), e);
+        }
+    });
+
+    private BearerTokens() {
+    }
+
+    /**
+     * The content of a verified token.
+     */
+    public static final class Claims {
+
+        private final String email;
+        private final String[] roleNames;
+        private final long issuedAt;
+        private final long expiresAt;
+
+        Claims(String email, String[] roleNames, long issuedAt, long expiresAt) {
+            this.email = email;
+            this.roleNames = roleNames;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return The email of the {@code Employee}.
+         */
+        public String getEmail() {
+            return email;
+        }
+
+        /**
+         * @return The role names of the {@code Employee}.
+         */
+        public String[] getRoleNames() {
+            return roleNames.clone();
+        }
+
+        /**
+         * @return The issue time, in milliseconds since the epoch.
+         */
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+
+        /**
+         * @return The expiry, in milliseconds since the epoch.
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    /**
+     * Create a token.
+     *
+     * @param email The email of the authenticated {@code Employee}.
+     * @param roleNames The role names of the {@code Employee}.
+     * @return The token and its expiry.
+     */
+    public static Claims create(String email, String... roleNames) {
+        long now = System.currentTimeMillis();
+        return new Claims(email, roleNames.clone(), now, now + TTL_MILLIS);
+    }
+
+    /**
+     * Encode and sign the claims: {@code payload.signature}, both
+     * {@code Base64url} encoded.
+     *
+     * @param claims The claims to encode.
+     * @return The token.
+     * @throws IllegalStateException if the configured signing key is invalid.
+     */
+    public static String encode(Claims claims) {
+        if (KEY == null) {
+            throw new IllegalStateException("No tokens are issued, the value of " + SECRET_PROPERTY + " is invalid");
+        }
+        StringBuilder payload = new StringBuilder(64);
+        payload.append(claims.email).append(SEPARATOR).append(claims.issuedAt).append(SEPARATOR)
+                .append(claims.expiresAt).append(SEPARATOR).append(String.join(",", claims.roleNames));
+        byte[] payloadBytes = payload.toString().getBytes(StandardCharsets.UTF_8);
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(MAC.get().doFinal(payloadBytes));
+    }
+
+    /**
+     * Verify a token.
+     *
+     * @param token The token.
+     * @return The claims, or {@code null} if the token is invalid, expired or
+     * revoked.
+     */
+    public static Claims verify(String token) {
+        int dot = token.indexOf('.');
+        if ((dot <= 0) || (KEY == null)) {
+            return null;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payloadBytes = decoder.decode(token.substring(0, dot));
+            byte[] signature = decoder.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, MAC.get().doFinal(payloadBytes))) {
+                return null;
+            }
+
+            String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split(String.valueOf(SEPARATOR), -1);
+            if (fields.length != 4) {
+                return null;
+            }
+            long issuedAt = Long.parseLong(fields[1]);
+            long expiresAt = Long.parseLong(fields[2]);
+            if ((expiresAt < System.currentTimeMillis()) || isRevoked(fields[0], issuedAt)) {
+                return null;
+            }
+            return new Claims(fields[0], fields[3].isEmpty() ? new String[0] : fields[3].split(","), issuedAt, expiresAt);
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Revoke all tokens of an {@code Employee} issued up to now, to be called
+     * after a change of the password or roles was committed.
+     *
+     * @param email The email of the {@code Employee}.
+     */
+    public static void revoke(String email) {
+        long now = System.currentTimeMillis();
+        NOT_VALID_UP_TO.put(email, now);
+        // the tokens issued before now - ttl are expired anyway
+        NOT_VALID_UP_TO.values().removeIf(notValidUpTo -> notValidUpTo < now - TTL_MILLIS);
+    }
+
+    /**
+     * Revoke all tokens issued up to now.
+     */
+    public static void revokeAll() {
+        allNotValidUpTo = System.currentTimeMillis();
+        NOT_VALID_UP_TO.clear();
+    }
+
+    private static boolean isRevoked(String email, long issuedAt) {
+        Long notValidUpTo = NOT_VALID_UP_TO.get(email);
+        return (issuedAt <= allNotValidUpTo) || ((notValidUpTo != null) && (issuedAt <= notValidUpTo));
+    }
+
+    /**
+     * Create the signing key from {@value #SECRET_PROPERTY}, or a random key if
+     * it is not set.
+     *
+     * @return The signing key, or {@code null} if the configured key is
+     * invalid.
+     */
+    private static SecretKeySpec createKey() {
+        String secret = System.getProperty(SECRET_PROPERTY);
+        if (secret == null) {
+            log.warn("No {} set: using a random key, tokens are only valid on this node until restart", SECRET_PROPERTY);
+            byte[] key = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+            return new SecretKeySpec(key, ALGORITHM);
+        }
+
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(secret.trim());
+        }
+        catch (IllegalArgumentException e) {
+            log.error("Invalid {}: not Base64 encoded ({}), no bearer tokens are issued or accepted", SECRET_PROPERTY, e.getMessage());
+            return null;
+        }
+        if (key.length < MIN_SECRET_BYTES) {
+            log.error("Invalid {}: {} bytes, at least {} bytes required, no bearer tokens are issued or accepted",
+                    SECRET_PROPERTY, key.length, MIN_SECRET_BYTES);
+            return null;
+        }
+        return new SecretKeySpec(key, ALGORITHM);
+    }
+}
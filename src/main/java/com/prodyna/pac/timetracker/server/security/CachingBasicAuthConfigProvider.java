@@ -0,0 +1,144 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.security;
+
+import java.util.Collections;
+import java.util.Map;
+import javax.security.auth.Subject;
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.message.AuthException;
+import javax.security.auth.message.AuthStatus;
+import javax.security.auth.message.MessageInfo;
+import javax.security.auth.message.config.AuthConfigFactory;
+import javax.security.auth.message.config.AuthConfigProvider;
+import javax.security.auth.message.config.ClientAuthConfig;
+import javax.security.auth.message.config.ServerAuthConfig;
+import javax.security.auth.message.config.ServerAuthContext;
+
+/**
+ * The {@code JASPIC AuthConfigProvider} that plugs the
+ * {@link CachingBasicAuthModule} into the container. It is registered for this
+ * application by {@link CachingBasicAuthRegistration}.
+ *
+ * @author apatrikis
+ */
+public class CachingBasicAuthConfigProvider implements AuthConfigProvider {
+
+    /**
+     * Option for the realm name sent with a {@code BASIC} challenge.
+     */
+    public static final String REALM_NAME_OPTION = "realmName";
+
+    /**
+     * The realm name of {@code web.xml}.
+     */
+    public static final String DEFAULT_REALM_NAME = "timeTrackerRealm";
+
+    private final Map<String, String> options;
+
+    /**
+     * Constructor.
+     *
+     * @param options The options passed to the {@link CachingBasicAuthModule}.
+     * @param factory The factory, {@code null} if not called by the factory.
+     */
+    public CachingBasicAuthConfigProvider(Map<String, String> options, AuthConfigFactory factory) {
+        this.options = (options != null) ? options : Collections.<String, String>emptyMap();
+    }
+
+    @Override
+    public ServerAuthConfig getServerAuthConfig(String layer, String appContext, CallbackHandler handler) throws AuthException {
+        return new Config(layer, appContext, handler, options);
+    }
+
+    @Override
+    public ClientAuthConfig getClientAuthConfig(String layer, String appContext, CallbackHandler handler) throws AuthException {
+        return null;
+    }
+
+    @Override
+    public void refresh() {
+        // nothing to do
+    }
+
+    /**
+     * The {@link ServerAuthConfig} of the application.
+     */
+    private static final class Config implements ServerAuthConfig {
+
+        private final String layer;
+        private final String appContext;
+        private final CallbackHandler handler;
+        private final Map<String, String> options;
+
+        Config(String layer, String appContext, CallbackHandler handler, Map<String, String> options) {
+            this.layer = layer;
+            this.appContext = appContext;
+            this.handler = handler;
+            this.options = options;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public ServerAuthContext getAuthContext(String authContextID, Subject serviceSubject, Map properties) throws AuthException {
+            CachingBasicAuthModule module = new CachingBasicAuthModule();
+            module.initialize(null, null, handler, options);
+            return new Context(module);
+        }
+
+        @Override
+        public String getMessageLayer() {
+            return layer;
+        }
+
+        @Override
+        public String getAppContext() {
+            return appContext;
+        }
+
+        @Override
+        public String getAuthContextID(MessageInfo messageInfo) {
+            return appContext;
+        }
+
+        @Override
+        public void refresh() {
+            // nothing to do
+        }
+
+        @Override
+        public boolean isProtected() {
+            return false;
+        }
+    }
+
+    /**
+     * The {@link ServerAuthContext} delegating to the
+     * {@link CachingBasicAuthModule}.
+     */
+    private static final class Context implements ServerAuthContext {
+
+        private final CachingBasicAuthModule module;
+
+        Context(CachingBasicAuthModule module) {
+            this.module = module;
+        }
+
+        @Override
+        public AuthStatus validateRequest(MessageInfo messageInfo, Subject clientSubject, Subject serviceSubject) throws AuthException {
+            return module.validateRequest(messageInfo, clientSubject, serviceSubject);
+        }
+
+        @Override
+        public AuthStatus secureResponse(MessageInfo messageInfo, Subject serviceSubject) throws AuthException {
+            return module.secureResponse(messageInfo, serviceSubject);
+        }
+
+        @Override
+        public void cleanSubject(MessageInfo messageInfo, Subject subject) throws AuthException {
+            module.cleanSubject(messageInfo, subject);
+        }
+    }
+}
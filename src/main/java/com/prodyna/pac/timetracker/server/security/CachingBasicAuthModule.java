@@ -0,0 +1,179 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.security;
+
+import com.prodyna.pac.timetracker.server.cache.CredentialCache;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import javax.enterprise.inject.spi.CDI;
+import javax.security.auth.Subject;
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.callback.UnsupportedCallbackException;
+import javax.security.auth.message.AuthException;
+import javax.security.auth.message.AuthStatus;
+import javax.security.auth.message.MessageInfo;
+import javax.security.auth.message.MessagePolicy;
+import javax.security.auth.message.callback.CallerPrincipalCallback;
+import javax.security.auth.message.callback.GroupPrincipalCallback;
+import javax.security.auth.message.module.ServerAuthModule;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A {@code JASPIC ServerAuthModule} for {@code BASIC} authentication, which
+ * verifies the credentials by the {@link CredentialCache} instead of the
+ * {@code timeTrackerRealm}. The role names of the {@code Employee} are passed
+ * to the container as groups, which are mapped to roles by
+ * {@code glassfish-web.xml}.
+ * <p/>
+ * A {@code Bearer} token created by {@link BearerTokens} is accepted instead
+ * of {@code BASIC} credentials; it is verified by its signature only. The used
+ * scheme is stored in the request attribute {@link #AUTH_SCHEME_ATTRIBUTE}.
+ *
+ * @author apatrikis
+ * @see
+ * <a href="https://jcp.org/en/jsr/detail?id=196">JASPIC</a>
+ */
+public class CachingBasicAuthModule implements ServerAuthModule {
+
+    /**
+     * Request attribute with the scheme used for authenticating the caller:
+     * {@link #SCHEME_BASIC} or {@link #SCHEME_BEARER}.
+     */
+    public static final String AUTH_SCHEME_ATTRIBUTE = CachingBasicAuthModule.class.getName() + ".authScheme";
+
+    /**
+     * The caller was authenticated by {@code BASIC} credentials.
+     */
+    public static final String SCHEME_BASIC = "Basic";
+
+    /**
+     * The caller was authenticated by a {@code Bearer} token.
+     */
+    public static final String SCHEME_BEARER = "Bearer";
+
+    private static final String IS_MANDATORY = "javax.security.auth.message.MessagePolicy.isMandatory";
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private CallbackHandler handler;
+
+    private String realmName;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void initialize(MessagePolicy requestPolicy, MessagePolicy responsePolicy, CallbackHandler handler, Map options) throws AuthException {
+        this.handler = handler;
+        Object realm = (options != null) ? options.get(CachingBasicAuthConfigProvider.REALM_NAME_OPTION) : null;
+        this.realmName = (realm != null) ? realm.toString() : CachingBasicAuthConfigProvider.DEFAULT_REALM_NAME;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Class[] getSupportedMessageTypes() {
+        return new Class[]{HttpServletRequest.class, HttpServletResponse.class};
+    }
+
+    @Override
+    public AuthStatus validateRequest(MessageInfo messageInfo, Subject clientSubject, Subject serviceSubject) throws AuthException {
+        HttpServletRequest request = (HttpServletRequest) messageInfo.getRequestMessage();
+        HttpServletResponse response = (HttpServletResponse) messageInfo.getResponseMessage();
+        boolean mandatory = Boolean.parseBoolean(String.valueOf(messageInfo.getMap().get(IS_MANDATORY)));
+
+        String authorization = request.getHeader("Authorization");
+        if ((authorization != null) && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            BearerTokens.Claims claims = BearerTokens.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+            if (claims != null) {
+                request.setAttribute(AUTH_SCHEME_ATTRIBUTE, SCHEME_BEARER);
+                handle(new CallerPrincipalCallback(clientSubject, claims.getEmail()),
+                        new GroupPrincipalCallback(clientSubject, claims.getRoleNames()));
+                return AuthStatus.SUCCESS;
+            }
+        }
+
+        String[] credentials = parseCredentials(authorization);
+        if (credentials != null) {
+            String[] roleNames = verify(credentials[0], credentials[1]);
+            if (roleNames != null) {
+                request.setAttribute(AUTH_SCHEME_ATTRIBUTE, SCHEME_BASIC);
+                handle(new CallerPrincipalCallback(clientSubject, credentials[0]),
+                        new GroupPrincipalCallback(clientSubject, roleNames));
+                return AuthStatus.SUCCESS;
+            }
+        }
+
+        if (!mandatory) {
+            // unprotected resource: continue without a caller
+            handle(new CallerPrincipalCallback(clientSubject, (String) null));
+            return AuthStatus.SUCCESS;
+        }
+
+        response.setHeader("WWW-Authenticate", "Basic realm=\"" + realmName + "\"");
+        try {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        }
+        catch (IOException e) {
+            throw (AuthException) new AuthException(e.getMessage()).initCause(e);
+        }
+        return AuthStatus.SEND_CONTINUE;
+    }
+
+    @Override
+    public AuthStatus secureResponse(MessageInfo messageInfo, Subject serviceSubject) throws AuthException {
+        return AuthStatus.SEND_SUCCESS;
+    }
+
+    @Override
+    public void cleanSubject(MessageInfo messageInfo, Subject subject) throws AuthException {
+        if (subject != null) {
+            subject.getPrincipals().clear();
+        }
+    }
+
+    /**
+     * Extract email and password of a {@code BASIC Authorization} header.
+     *
+     * @param authorization The header value, may be {@code null}.
+     * @return The email and password, or {@code null} if the header is missing
+     * or invalid.
+     */
+    private String[] parseCredentials(String authorization) {
+        if ((authorization == null) || !authorization.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getDecoder().decode(authorization.substring(BASIC_PREFIX.length()).trim()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return (separator > 0) ? new String[]{decoded.substring(0, separator), decoded.substring(separator + 1)} : null;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String[] verify(String email, String password) throws AuthException {
+        try {
+            return CDI.current().select(CredentialCache.class).get().verify(email, password);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw (AuthException) new AuthException(e.getMessage()).initCause(e);
+        }
+    }
+
+    private void handle(Callback... callbacks) throws AuthException {
+        try {
+            handler.handle(callbacks);
+        }
+        catch (IOException | UnsupportedCallbackException e) {
+            throw (AuthException) new AuthException(e.getMessage()).initCause(e);
+        }
+    }
+}
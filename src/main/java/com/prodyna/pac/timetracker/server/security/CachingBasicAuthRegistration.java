@@ -0,0 +1,68 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.security;
+
+import java.util.Collections;
+import javax.security.auth.message.config.AuthConfigFactory;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registers the {@link CachingBasicAuthModule} for this application on
+ * startup, so {@code BASIC} authentication is done by the cached credentials
+ * instead of a realm lookup for each {@code Request}. The registration can be
+ * disabled by the system property {@value #DISABLED_PROPERTY}, then the
+ * {@code timeTrackerRealm} of {@code web.xml} is used.
+ *
+ * @author apatrikis
+ */
+@WebListener
+public class CachingBasicAuthRegistration implements ServletContextListener {
+
+    /**
+     * System property for disabling the {@link CachingBasicAuthModule}.
+     */
+    public static final String DISABLED_PROPERTY = "timetracker.auth.cache.disabled";
+
+    private static final String LAYER = "HttpServlet";
+
+    // Glassfisch app server exceptions on startup when injected
+    private final Logger log = LoggerFactory.getLogger(CachingBasicAuthRegistration.class);
+
+    private String registrationId;
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        if (Boolean.getBoolean(DISABLED_PROPERTY)) {
+            log.info("Caching BASIC authentication disabled, using the realm");
+            return;
+        }
+
+        registrationId = AuthConfigFactory.getFactory().registerConfigProvider(
+                new CachingBasicAuthConfigProvider(Collections.singletonMap(CachingBasicAuthConfigProvider.REALM_NAME_OPTION,
+                        CachingBasicAuthConfigProvider.DEFAULT_REALM_NAME), null),
+                LAYER, getAppContextId(sce.getServletContext()), "Caching BASIC authentication");
+        log.info("Registered caching BASIC authentication: {}", registrationId);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (registrationId != null) {
+            AuthConfigFactory.getFactory().removeRegistration(registrationId);
+        }
+    }
+
+    /**
+     * Get the application context id as defined by the {@code JASPIC Servlet
+     * Container Profile}.
+     */
+    private static String getAppContextId(ServletContext context) {
+        return context.getVirtualServerName() + " " + context.getContextPath();
+    }
+}
@@ -0,0 +1,9 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+/**
+ * Package with classes for the container authentication of the
+ * {@code REST} calls.
+ */
+package com.prodyna.pac.timetracker.server.security;
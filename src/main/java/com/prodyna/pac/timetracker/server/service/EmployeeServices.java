@@ -60,4 +60,17 @@ public interface EmployeeServices {
      * @return The {@link List} of matching {@link Employee}s.
      */
     List<Employee> find(String searchPattern);
+
+    /**
+     * Find a page of {@link Employee} database entities by using a search
+     * pattern, see {@link #find(String)}.
+     *
+     * @param searchPattern The search pattern for the {@link Employee}s to
+     * find.
+     * @param offset The number of matching entries to skip.
+     * @param limit The maximum number of entries to return, {@code 0} or less
+     * for no limit.
+     * @return The {@link List} of matching {@link Employee}s.
+     */
+    List<Employee> find(String searchPattern, int offset, int limit);
 }
@@ -26,6 +26,19 @@ public interface Project2EmployeeServices {
      */
     void create(Project2Employee projectEmployee) throws PrimaryKeyException;
 
+    /**
+     * Create a list of {@link Project2Employee} database entities in one
+     * transaction. Either all entities are created or none. The
+     * {@link Employee}s and {@link Project}s of the entities are replaced by
+     * the stored entities.
+     *
+     * @param projectEmployees The entities to create.
+     * @throws PrimaryKeyException if an {@link Employee} is already assigned
+     * to the {@link Project}, an assignment is contained twice, or an
+     * {@link Employee} or {@link Project} does not exist.
+     */
+    void createAll(List<Project2Employee> projectEmployees) throws PrimaryKeyException;
+
     /**
      * Read a {@link Project2Employee} database entity.
      *
@@ -77,4 +90,13 @@ public interface Project2EmployeeServices {
      * @return The {@link List} of matching {@link Project2Employee} entities.
      */
     List<Project2Employee> find(Project project, Employee employee);
+
+    /**
+     * Check if an {@link Employee} is assigned to a {@link Project}.
+     *
+     * @param project The {@link Project} to check.
+     * @param employee The {@link Employee} to check.
+     * @return {@code true} if the assignment exists, else {@code false}.
+     */
+    boolean isAssigned(Project project, Employee employee);
 }
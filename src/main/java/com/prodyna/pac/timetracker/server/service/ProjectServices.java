@@ -37,6 +37,16 @@ public interface ProjectServices {
      */
     void update(Project project);
 
+    /**
+     * Get a reference to a {@link Project} database entity, e. g. for search
+     * parameters or relations. The state of the {@link Project} is not loaded.
+     *
+     * @param projectID The {@code primary key}.
+     * @return The reference, or {@code null} if the {@link Project} does not
+     * exist.
+     */
+    Project readReference(String projectID);
+
     /**
      * Delete a {@link Project} database entity.
      *
@@ -59,6 +69,18 @@ public interface ProjectServices {
      */
     List<Project> find(String searchPattern);
 
+    /**
+     * Find a page of {@link Project} database entities by using a search
+     * pattern, see {@link #find(String)}.
+     *
+     * @param searchPattern The search pattern for the {@link Project}s to find.
+     * @param offset The number of matching entries to skip.
+     * @param limit The maximum number of entries to return, {@code 0} or less
+     * for no limit.
+     * @return The {@link List} of matching {@link Project}s.
+     */
+    List<Project> find(String searchPattern, int offset, int limit);
+
     /**
      * Find all {@link Project}s managed by the specified {@link Employee}.
      *
@@ -7,9 +7,13 @@ package com.prodyna.pac.timetracker.server.service;
 import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.Project;
 import com.prodyna.pac.timetracker.entity.TimeRecord;
+import com.prodyna.pac.timetracker.entity.TimeRecordStatus;
 import com.prodyna.pac.timetracker.pojo.TimeRecordSearch;
 import com.prodyna.pac.timetracker.server.exception.EntityDataException;
 import com.prodyna.pac.timetracker.server.exception.SearchParametersException;
+import com.prodyna.pac.timetracker.server.pojo.ReportPeriod;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordResult;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordTotal;
 import java.util.List;
 
 /**
@@ -30,6 +34,20 @@ public interface TimeRecordServices {
      */
     void create(TimeRecord timeRecord) throws EntityDataException, SearchParametersException;
 
+    /**
+     * Create a list of {@link TimeRecord} database entities in one
+     * transaction. Each {@link TimeRecord} is checked like by
+     * {@link #create(TimeRecord)}, including the assignment of the
+     * {@link Employee} to the {@link Project}, and against the other entries
+     * of the list. Rejected entries are reported and skipped, all other
+     * entries are created.
+     *
+     * @param timeRecords The entities to create.
+     * @return The {@link TimeRecordResult} for each entity, in the order of
+     * the list.
+     */
+    List<TimeRecordResult> createAll(List<TimeRecord> timeRecords);
+
     /**
      * Read a {@link Project} database entity.
      *
@@ -49,6 +67,23 @@ public interface TimeRecordServices {
      */
     void update(TimeRecord timeRecord) throws EntityDataException, SearchParametersException;
 
+    /**
+     * Change the status of a list of {@link TimeRecord} database entities in
+     * one transaction, e. g. for approving the bookings of a month. Each
+     * {@link TimeRecord} is checked for a valid workflow transition, a
+     * {@link Project} that can be used for booking and the assignment of the
+     * owner to the {@link Project}; no other values are changed. Rejected
+     * entries are reported and skipped, all other entries are changed.
+     *
+     * @param ids The {@code primary key}s.
+     * @param recordStatus The new status.
+     * @return The {@link TimeRecordResult} for each {@code primary key}, in
+     * the order of the list.
+     * @throws EntityDataException if the new status is not specified, or an
+     * entry was changed concurrently; then no entry is changed.
+     */
+    List<TimeRecordResult> changeStatus(List<String> ids, TimeRecordStatus recordStatus) throws EntityDataException;
+
     /**
      * Delete a {@link TimeRecord} database entity.
      *
@@ -70,4 +105,48 @@ public interface TimeRecordServices {
      * invalid.
      */
     List<TimeRecord> find(TimeRecordSearch searchPattern) throws SearchParametersException;
+
+    /**
+     * Find {@link TimeRecord} database entities by using a search pattern, one
+     * page at a time. The result is ordered by {@code primary key}, so the
+     * next page is read by passing the {@code primary key} of the last entry
+     * of the previous page as {@code after}.
+     *
+     * @param searchPattern The serch values that could be used. Any combination
+     * of values may be used, even no values at all or {@code null}.
+     * @param after Only entries with a {@code primary key} greater then this
+     * value are returned, {@code null} to start with the first entry.
+     * @param limit The maximum number of entries to return, {@code 0} or less
+     * for no limit.
+     * @return The {@link List} of matching {@link TimeRecord}s.
+     * @throws SearchParametersException e. g. if the {@link Project} or
+     * {@link Employee} is not specified, or the provided timestamps are
+     * invalid.
+     */
+    List<TimeRecord> find(TimeRecordSearch searchPattern, String after, int limit) throws SearchParametersException;
+
+    /**
+     * Sum up the net booking time of {@link TimeRecord} database entities
+     * matching a search pattern. The totals are grouped by period, project and
+     * status, and are ordered by period start. The totals are read from daily
+     * pre-aggregated values, so the time frame is applied to whole days.
+     *
+     * @param searchPattern The serch values that could be used. Any combination
+     * of values may be used, even no values at all or {@code null}.
+     * @param period The period to group by.
+     * @return The {@link List} of {@link TimeRecordTotal}s.
+     * @throws SearchParametersException e. g. if the {@link Project} or
+     * {@link Employee} is not specified, or the provided timestamps are
+     * invalid.
+     */
+    List<TimeRecordTotal> findTotals(TimeRecordSearch searchPattern, ReportPeriod period) throws SearchParametersException;
+
+    /**
+     * Recreate the pre-aggregated daily totals used by
+     * {@link #findTotals(TimeRecordSearch, ReportPeriod)} from all
+     * {@link TimeRecord} database entities.
+     *
+     * @return The number of created daily totals.
+     */
+    int rebuildDailyTotals();
 }
@@ -4,8 +4,20 @@
  */
 package com.prodyna.pac.timetracker.server.service.jpa;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Resource;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 /**
  * Base class to be used for all classes which provide services unsing a
@@ -20,4 +32,146 @@ public abstract class AbstractService {
      */
     @PersistenceContext
     protected EntityManager em;
+
+    /**
+     * The {@link TransactionSynchronizationRegistry} to use.
+     */
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    /**
+     * The escape character used in {@code LIKE} patterns, see
+     * {@link #containsPattern(String)}.
+     */
+    protected static final char LIKE_ESCAPE = '!';
+
+    /**
+     * Create a {@code LIKE} pattern matching all values that contain the
+     * search pattern, for comparing with a {@code lower(...)} value. The
+     * wildcards {@code %} and {@code _} of the search pattern are escaped by
+     * {@link #LIKE_ESCAPE}.
+     *
+     * @param searchPattern The search pattern.
+     * @return The {@code LIKE} pattern.
+     */
+    protected static String containsPattern(String searchPattern) {
+        StringBuilder pattern = new StringBuilder(searchPattern.length() + 4).append('%');
+        for (char c : searchPattern.toLowerCase(Locale.ROOT).toCharArray()) {
+            if ((c == '%') || (c == '_') || (c == LIKE_ESCAPE)) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    /**
+     * Restrict a query to a page of results.
+     *
+     * @param <T> The result type.
+     * @param query The query.
+     * @param offset The number of entries to skip.
+     * @param limit The maximum number of entries to return, {@code 0} or less
+     * for no limit.
+     * @return The query.
+     */
+    protected static <T> TypedQuery<T> page(TypedQuery<T> query, int offset, int limit) {
+        if (offset > 0) {
+            query.setFirstResult(offset);
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query;
+    }
+
+    /**
+     * Restrict a list to a page of entries.
+     *
+     * @param <T> The entry type.
+     * @param list The list.
+     * @param offset The number of entries to skip.
+     * @param limit The maximum number of entries to return, {@code 0} or less
+     * for no limit.
+     * @return The page, a view of the list.
+     */
+    protected static <T> List<T> page(List<T> list, int offset, int limit) {
+        int from = Math.max(0, offset);
+        if (from >= list.size()) {
+            return Collections.emptyList();
+        }
+        int to = (limit > 0) ? (int) Math.min((long) from + limit, list.size()) : list.size();
+        return list.subList(from, to);
+    }
+
+    /**
+     * Sort entities read by a list of keys, e. g. with an {@code IN} query, in
+     * the order of the keys. Keys without an entity are skipped.
+     *
+     * @param <T> The entity type.
+     * @param keys The keys, in the requested order.
+     * @param entities The entities, in any order.
+     * @param keyOf Get the key of an entity.
+     * @return The entities in the order of the keys.
+     */
+    protected static <T> List<T> inKeyOrder(List<String> keys, List<T> entities, Function<T, String> keyOf) {
+        Map<String, T> byKey = new HashMap<>();
+        for (T entity : entities) {
+            byKey.put(keyOf.apply(entity), entity);
+        }
+        List<T> ret = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            T entity = byKey.get(key);
+            if (entity != null) {
+                ret.add(entity);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Check if a query has any result. Only the first row is fetched, so the
+     * query should select a single column, e. g. the {@code primary key}.
+     *
+     * @param query The query, with all parameters set.
+     * @return {@code true} if there is at least one result, else
+     * {@code false}.
+     */
+    protected static boolean exists(TypedQuery<?> query) {
+        return !query.setMaxResults(1).getResultList().isEmpty();
+    }
+
+    /**
+     * Mark the current transaction for rollback, e. g. before throwing a
+     * checked exception after changes were already sent to the database.
+     */
+    protected void setRollbackOnly() {
+        transactionRegistry.setRollbackOnly();
+    }
+
+    /**
+     * Run an action after the current transaction was committed, e. g. for
+     * updating caches. If no transaction is active the action is run
+     * immediately.
+     *
+     * @param action The action to run.
+     */
+    protected void afterCommit(final Runnable action) {
+        if (transactionRegistry.getTransactionKey() == null) {
+            action.run();
+        } else {
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
 }
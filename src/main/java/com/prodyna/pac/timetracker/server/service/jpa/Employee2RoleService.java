@@ -7,6 +7,7 @@ package com.prodyna.pac.timetracker.server.service.jpa;
 import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.Employee2Role;
 import com.prodyna.pac.timetracker.entity.EmployeeRole;
+import com.prodyna.pac.timetracker.server.cache.CredentialCache;
 import com.prodyna.pac.timetracker.server.exception.PrimaryKeyException;
 import com.prodyna.pac.timetracker.server.service.Employee2RoleServices;
 import java.util.Arrays;
@@ -23,18 +24,22 @@ public class Employee2RoleService extends AbstractService implements Employee2Ro
     @Inject
     private Logger log;
 
+    @Inject
+    private CredentialCache credentialCache;
+
     @Override
     public void create(Employee2Role employeeRole) throws PrimaryKeyException {
-        List<Employee2Role> roles = find(employeeRole.getEmployee());
-        for (Employee2Role role : roles) {
-            if (role.getRoleName().equals(employeeRole.getRoleName())) {
-                throw new PrimaryKeyException(String.format("Assigment Employee [%S] to Role [%s] already exists",
-                        employeeRole.getEmployee().toString(),
-                        employeeRole.getRoleName()));
-            }
+        boolean assigned = exists(em.createNamedQuery(NamedQueryRegistry.EMPLOYEE2ROLE_EXISTS, String.class)
+                .setParameter("roleName", employeeRole.getRoleName())
+                .setParameter("email", employeeRole.getEmployee().getEmail()));
+        if (assigned) {
+            throw new PrimaryKeyException(String.format("Assigment Employee [%S] to Role [%s] already exists",
+                    employeeRole.getEmployee().toString(),
+                    employeeRole.getRoleName()));
         }
 
         em.persist(employeeRole);
+        afterCommit(() -> credentialCache.invalidate(employeeRole.getEmployee().getEmail()));
     }
 
     @Override
@@ -47,6 +52,7 @@ public class Employee2RoleService extends AbstractService implements Employee2Ro
         Employee2Role employeeRole = read(id);
         if (employeeRole != null) {
             em.remove(employeeRole);
+            afterCommit(() -> credentialCache.invalidate(employeeRole.getEmployee().getEmail()));
         }
         return employeeRole;
     }
@@ -5,6 +5,8 @@
 
 import com.prodyna.pac.timetracker.Security;
 import com.prodyna.pac.timetracker.entity.Employee;
+import com.prodyna.pac.timetracker.server.cache.CredentialCache;
+import com.prodyna.pac.timetracker.server.cache.SearchIndex;
 import com.prodyna.pac.timetracker.server.service.EmployeeServices;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -26,12 +28,19 @@ public class EmployeeService extends AbstractService implements EmployeeServices
     @Inject
     private Logger log;
 
+    @Inject
+    private CredentialCache credentialCache;
+
+    @Inject
+    private SearchIndex searchIndex;
+
     @Override
     public void create(Employee employee) throws NoSuchAlgorithmException {
         if (employee.getPassword() != null) {
             employee.setPassword(Security.passwordHashSHA256(employee.getPassword()));
         }
         em.persist(employee);
+        afterCommit(() -> searchIndex.employeeSaved(employee));
     }
 
     @Override
@@ -42,6 +51,10 @@ public class EmployeeService extends AbstractService implements EmployeeServices
     @Override
     public void update(Employee employee) {
         em.merge(employee);
+        afterCommit(() -> {
+            credentialCache.invalidate(employee.getEmail());
+            searchIndex.employeeSaved(employee);
+        });
     }
 
     @Override
@@ -49,28 +62,35 @@ public class EmployeeService extends AbstractService implements EmployeeServices
         Employee employee = read(email);
         if (employee != null) {
             em.remove(employee);
+            afterCommit(() -> {
+                credentialCache.invalidate(email);
+                searchIndex.employeeRemoved(email);
+            });
         }
         return employee;
     }
 
     @Override
     public List<Employee> find(String searchPattern) {
-        List<Employee> allMember;
-        allMember = em.createNamedQuery("Employee.findAll", Employee.class).getResultList();
+        return find(searchPattern, 0, 0);
+    }
 
+    @Override
+    public List<Employee> find(String searchPattern, int offset, int limit) {
         if ((searchPattern == null) || (searchPattern.length() == 0)) {
-            return allMember;
-        } else {
-            searchPattern = searchPattern.toLowerCase();
-            List<Employee> ret = new ArrayList<>();
-            for (Employee member : allMember) {
-                if (member.getFirstName().toLowerCase().contains(searchPattern)
-                        || member.getLastName().toLowerCase().contains(searchPattern)
-                        || member.getEmail().toLowerCase().contains(searchPattern)) {
-                    ret.add(member);
-                }
+            return page(em.createNamedQuery("Employee.findAll", Employee.class), offset, limit).getResultList();
+        } else if (searchIndex.isEnabled()) {
+            List<String> emails = page(searchIndex.findEmployees(searchPattern), offset, limit);
+            if (emails.isEmpty()) {
+                return new ArrayList<>();
             }
-            return ret;
+            return inKeyOrder(emails, em.createNamedQuery(NamedQueryRegistry.EMPLOYEE_FIND_BY_KEYS, Employee.class)
+                    .setParameter("keys", emails)
+                    .getResultList(), Employee::getEmail);
+        } else {
+            return page(em.createNamedQuery(NamedQueryRegistry.EMPLOYEE_SEARCH, Employee.class)
+                    .setParameter("pattern", containsPattern(searchPattern)), offset, limit)
+                    .getResultList();
         }
     }
 }
@@ -0,0 +1,260 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.service.jpa;
+
+import com.prodyna.pac.timetracker.entity.Employee;
+import com.prodyna.pac.timetracker.entity.Employee2Role;
+import com.prodyna.pac.timetracker.entity.Project;
+import com.prodyna.pac.timetracker.entity.Project2Employee;
+import com.prodyna.pac.timetracker.entity.TimeRecord;
+import com.prodyna.pac.timetracker.server.entity.TimeRecordDaily;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import org.slf4j.Logger;
+
+/**
+ * Registers the named queries for searches with optional parameters. Every
+ * combination of search parameters gets its own named query, so the
+ * {@code JPQL} is parsed only once at startup instead of on every search.
+ * <p/>
+ * The {@link TimeRecord} search queries are registered twice: the paged
+ * variants contain the keyset condition {@code tr.id > :after} and are ordered
+ * by {@code primary key}, use an empty string for reading from the first
+ * entry. The unpaged variants have neither, so the database does not have to
+ * sort the result.
+ *
+ * @author apatrikis
+ */
+@Startup
+@Singleton
+public class NamedQueryRegistry {
+
+    /**
+     * Name of the {@link Employee} search query, with the parameter
+     * {@code pattern} for a {@code LIKE} on first name, last name and email.
+     */
+    public static final String EMPLOYEE_SEARCH = "Employee.search";
+
+    /**
+     * Name of the {@link Project} search query, with the parameter
+     * {@code pattern} for a {@code LIKE} on project id, title and description.
+     */
+    public static final String PROJECT_SEARCH = "Project.search";
+
+    /**
+     * Name of the query reading the {@link Employee}s of a list of emails,
+     * with the parameter {@code keys}.
+     */
+    public static final String EMPLOYEE_FIND_BY_KEYS = "Employee.findByKeys";
+
+    /**
+     * Name of the query reading the {@link Project}s of a list of project ids,
+     * with the parameter {@code keys}.
+     */
+    public static final String PROJECT_FIND_BY_KEYS = "Project.findByKeys";
+
+    /**
+     * Name of the query selecting the {@code primary key} of an existing
+     * {@link Employee2Role}, with the parameters {@code roleName} and
+     * {@code email}; backed by the unique index {@code UIX_E2R_ROLE_EMAIL}.
+     */
+    public static final String EMPLOYEE2ROLE_EXISTS = "Employee2Role.exists";
+
+    /**
+     * Name of the query selecting the {@code primary key} of an existing
+     * {@link Project2Employee}, with the parameters {@code email} and
+     * {@code projectId}; backed by the unique index {@code UIX_P2E_EAMIL_PID}.
+     */
+    public static final String PROJECT2EMPLOYEE_EXISTS = "Project2Employee.exists";
+
+    /**
+     * Name of the query selecting email and project id of the existing
+     * {@link Project2Employee}s for all combinations of the parameters
+     * {@code emails} and {@code projectIds}.
+     */
+    public static final String PROJECT2EMPLOYEE_EXISTING_PAIRS = "Project2Employee.existingPairs";
+
+    /**
+     * Name of the query selecting the project ids assigned to an
+     * {@link Employee}, with the parameter {@code email}.
+     */
+    public static final String PROJECT2EMPLOYEE_PROJECT_IDS = "Project2Employee.projectIds";
+
+    /**
+     * Sum up the net minutes per day, project and status from the
+     * {@link TimeRecordDaily} rows. Grouping by week or month is done on the
+     * daily totals.
+     */
+    private static final String TOTALS_QUERY_SELECT = "select d.bookingDay, d.projectId, d.recordStatus,"
+            + " sum(d.netMinutes), sum(d.recordCount) from TimeRecordDaily d";
+
+    private static final String TOTALS_QUERY_GROUP = " group by d.bookingDay, d.projectId, d.recordStatus";
+
+    private static final int EMPLOYEE = 1;
+    private static final int PROJECT = 2;
+    private static final int FROM = 4;
+    private static final int THROUGH = 8;
+
+    @PersistenceUnit
+    private EntityManagerFactory emf;
+
+    @Inject
+    private Logger log;
+
+    /**
+     * Get the name of the {@link TimeRecord} search query for the given
+     * combination of parameters.
+     *
+     * @param employee {@code true} if the parameter {@code employee} is used.
+     * @param project {@code true} if the parameter {@code project} is used.
+     * @param from {@code true} if the parameter {@code from} is used.
+     * @param through {@code true} if the parameter {@code through} is used.
+     * @param paged {@code true} if the parameter {@code after} is used.
+     * @return The name of the named query.
+     */
+    public static String timeRecordSearch(boolean employee, boolean project, boolean from, boolean through, boolean paged) {
+        return (paged ? "TimeRecord.search.paged." : "TimeRecord.search.") + mask(employee, project, from, through);
+    }
+
+    /**
+     * Get the name of the {@link TimeRecordDaily} totals query for the given
+     * combination of parameters. The parameters {@code from} and
+     * {@code through} are booking days.
+     *
+     * @param employee {@code true} if the parameter {@code ownerEmail} is
+     * used.
+     * @param project {@code true} if the parameter {@code projectId} is used.
+     * @param from {@code true} if the parameter {@code from} is used.
+     * @param through {@code true} if the parameter {@code through} is used.
+     * @return The name of the named query.
+     */
+    public static String timeRecordTotals(boolean employee, boolean project, boolean from, boolean through) {
+        return "TimeRecordDaily.totals." + mask(employee, project, from, through);
+    }
+
+    /**
+     * Get the name of the {@link Project2Employee} search query for the given
+     * combination of parameters.
+     *
+     * @param project {@code true} if the parameter {@code project} is used.
+     * @param employee {@code true} if the parameter {@code employee} is used.
+     * @return The name of the named query.
+     */
+    public static String project2EmployeeSearch(boolean project, boolean employee) {
+        return "Project2Employee.search." + mask(employee, project, false, false);
+    }
+
+    /**
+     * Register all named queries.
+     */
+    @PostConstruct
+    public void registerQueries() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int mask = 0; mask < 16; mask++) {
+                List<String> whereClause = new ArrayList<>(4);
+                if ((mask & EMPLOYEE) != 0) {
+                    whereClause.add("tr.owner = :employee");
+                }
+                if ((mask & PROJECT) != 0) {
+                    whereClause.add("tr.project = :project");
+                }
+                if ((mask & FROM) != 0) {
+                    whereClause.add("tr.startTime >= :from");
+                }
+                if ((mask & THROUGH) != 0) {
+                    whereClause.add("tr.endTime <= :through");
+                }
+                String jpql = "select tr from TimeRecord tr"
+                        + (whereClause.isEmpty() ? "" : " where " + String.join(" and ", whereClause));
+                emf.addNamedQuery("TimeRecord.search." + mask, em.createQuery(jpql, TimeRecord.class));
+
+                whereClause.add(0, "tr.id > :after");
+                jpql = "select tr from TimeRecord tr where " + String.join(" and ", whereClause) + " order by tr.id";
+                emf.addNamedQuery("TimeRecord.search.paged." + mask, em.createQuery(jpql, TimeRecord.class));
+            }
+
+            for (int mask = 0; mask < 16; mask++) {
+                List<String> whereClause = new ArrayList<>(4);
+                if ((mask & EMPLOYEE) != 0) {
+                    whereClause.add("d.ownerEmail = :ownerEmail");
+                }
+                if ((mask & PROJECT) != 0) {
+                    whereClause.add("d.projectId = :projectId");
+                }
+                if ((mask & FROM) != 0) {
+                    whereClause.add("d.bookingDay >= :from");
+                }
+                if ((mask & THROUGH) != 0) {
+                    whereClause.add("d.bookingDay <= :through");
+                }
+                String jpql = TOTALS_QUERY_SELECT
+                        + (whereClause.isEmpty() ? "" : " where " + String.join(" and ", whereClause))
+                        + TOTALS_QUERY_GROUP;
+                emf.addNamedQuery("TimeRecordDaily.totals." + mask, em.createQuery(jpql, Object[].class));
+            }
+
+            for (int mask = 0; mask < 4; mask++) {
+                List<String> whereClause = new ArrayList<>(2);
+                if ((mask & PROJECT) != 0) {
+                    whereClause.add("pe.project = :project");
+                }
+                if ((mask & EMPLOYEE) != 0) {
+                    whereClause.add("pe.employee = :employee");
+                }
+                String jpql = "select pe from Project2Employee pe"
+                        + (whereClause.isEmpty() ? "" : " where " + String.join(" and ", whereClause));
+                emf.addNamedQuery("Project2Employee.search." + mask, em.createQuery(jpql, Project2Employee.class));
+            }
+
+            emf.addNamedQuery(EMPLOYEE_SEARCH, em.createQuery("select e from Employee e where "
+                    + like("e.firstName") + " or " + like("e.lastName") + " or " + like("e.email")
+                    + " order by e.email", Employee.class));
+            emf.addNamedQuery(PROJECT_SEARCH, em.createQuery("select p from Project p where "
+                    + like("p.projectId") + " or " + like("p.title") + " or " + like("p.description")
+                    + " order by p.projectId", Project.class));
+            emf.addNamedQuery(EMPLOYEE_FIND_BY_KEYS, em.createQuery("select e from Employee e where e.email in :keys",
+                    Employee.class));
+            emf.addNamedQuery(PROJECT_FIND_BY_KEYS, em.createQuery("select p from Project p where p.projectId in :keys",
+                    Project.class));
+
+            emf.addNamedQuery(EMPLOYEE2ROLE_EXISTS, em.createQuery("select er.id from Employee2Role er"
+                    + " where er.roleName = :roleName and er.employee.email = :email", String.class));
+            emf.addNamedQuery(PROJECT2EMPLOYEE_EXISTS, em.createQuery("select pe.id from Project2Employee pe"
+                    + " where pe.employee.email = :email and pe.project.projectId = :projectId", String.class));
+            emf.addNamedQuery(PROJECT2EMPLOYEE_EXISTING_PAIRS, em.createQuery("select pe.employee.email, pe.project.projectId"
+                    + " from Project2Employee pe where pe.employee.email in :emails and pe.project.projectId in :projectIds",
+                    Object[].class));
+            emf.addNamedQuery(PROJECT2EMPLOYEE_PROJECT_IDS, em.createQuery("select pe.project.projectId from Project2Employee pe"
+                    + " where pe.employee.email = :email", String.class));
+        }
+        finally {
+            em.close();
+        }
+        log.info("Registered named search queries");
+    }
+
+    /**
+     * Create a case insensitive {@code LIKE} condition for the parameter
+     * {@code pattern}.
+     */
+    private static String like(String path) {
+        return "lower(" + path + ") like :pattern escape '" + AbstractService.LIKE_ESCAPE + "'";
+    }
+
+    /**
+     * Create a bit mask for a combination of parameters.
+     */
+    private static int mask(boolean employee, boolean project, boolean from, boolean through) {
+        return (employee ? EMPLOYEE : 0) | (project ? PROJECT : 0) | (from ? FROM : 0) | (through ? THROUGH : 0);
+    }
+}
@@ -7,16 +7,18 @@ package com.prodyna.pac.timetracker.server.service.jpa;
 import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.Project;
 import com.prodyna.pac.timetracker.entity.Project2Employee;
+import com.prodyna.pac.timetracker.server.cache.AssignmentCache;
 import com.prodyna.pac.timetracker.server.exception.PrimaryKeyException;
 import com.prodyna.pac.timetracker.server.service.Project2EmployeeServices;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
-import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import org.slf4j.Logger;
 
 /**
@@ -31,10 +33,79 @@ public class Project2EmployeeService extends AbstractService implements Project2
     @Inject
     private Logger log;
 
+    @Inject
+    private AssignmentCache assignmentCache;
+
     @Override
     public void create(Project2Employee projectEmployee) throws PrimaryKeyException {
         checkAllreadyAssigned(projectEmployee);
         em.persist(projectEmployee);
+        afterCommit(() -> assignmentCache.assigned(projectEmployee.getEmployee().getEmail(), projectEmployee.getProject().getProjectId()));
+    }
+
+    @Override
+    public void createAll(List<Project2Employee> projectEmployees) throws PrimaryKeyException {
+        if (projectEmployees.isEmpty()) {
+            return;
+        }
+
+        // check for duplicates in the list, then against the database with one query
+        Set<String> pairs = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> projectIds = new HashSet<>();
+        for (Project2Employee projectEmployee : projectEmployees) {
+            if ((projectEmployee.getEmployee() == null) || (projectEmployee.getProject() == null)) {
+                throw new PrimaryKeyException("The Employee and Project of an assignment must be specified");
+            }
+            String email = projectEmployee.getEmployee().getEmail();
+            String projectId = projectEmployee.getProject().getProjectId();
+            if (!pairs.add(pair(email, projectId))) {
+                throw new PrimaryKeyException(String.format("Assigment Project [%s] to Employee [%s] is contained twice", projectId, email));
+            }
+            emails.add(email);
+            projectIds.add(projectId);
+        }
+
+        // all keys must exist, the assignments reference the stored entities
+        Map<String, Employee> employees = new HashMap<>();
+        for (Employee employee : em.createNamedQuery(NamedQueryRegistry.EMPLOYEE_FIND_BY_KEYS, Employee.class).setParameter("keys", emails).getResultList()) {
+            employees.put(employee.getEmail(), employee);
+        }
+        Map<String, Project> projects = new HashMap<>();
+        for (Project project : em.createNamedQuery(NamedQueryRegistry.PROJECT_FIND_BY_KEYS, Project.class).setParameter("keys", projectIds).getResultList()) {
+            projects.put(project.getProjectId(), project);
+        }
+        for (Project2Employee projectEmployee : projectEmployees) {
+            Employee employee = employees.get(projectEmployee.getEmployee().getEmail());
+            Project project = projects.get(projectEmployee.getProject().getProjectId());
+            if (employee == null) {
+                throw new PrimaryKeyException(String.format("Employee [%s] does not exist", projectEmployee.getEmployee().getEmail()));
+            } else if (project == null) {
+                throw new PrimaryKeyException(String.format("Project [%s] does not exist", projectEmployee.getProject().getProjectId()));
+            }
+            projectEmployee.setEmployee(employee);
+            projectEmployee.setProject(project);
+        }
+
+        List<Object[]> existing = em.createNamedQuery(NamedQueryRegistry.PROJECT2EMPLOYEE_EXISTING_PAIRS, Object[].class)
+                .setParameter("emails", emails)
+                .setParameter("projectIds", projectIds)
+                .getResultList();
+        for (Object[] row : existing) {
+            if (pairs.contains(pair((String) row[0], (String) row[1]))) {
+                throw new PrimaryKeyException(String.format("Assigment Project [%s] to Employee [%s] already exists", row[1], row[0]));
+            }
+        }
+
+        // the inserts are sent as one JDBC batch on flush, see persistence.xml
+        for (Project2Employee projectEmployee : projectEmployees) {
+            em.persist(projectEmployee);
+        }
+        afterCommit(() -> {
+            for (Project2Employee projectEmployee : projectEmployees) {
+                assignmentCache.assigned(projectEmployee.getEmployee().getEmail(), projectEmployee.getProject().getProjectId());
+            }
+        });
     }
 
     @Override
@@ -44,7 +115,18 @@ public class Project2EmployeeService extends AbstractService implements Project2
 
     @Override
     public void update(Project2Employee projectEmployee) {
+        Project2Employee current = read(projectEmployee.getId());
+        // keep the current values, as the managed entity is changed by the merge
+        String previousEmail = (current != null) ? current.getEmployee().getEmail() : null;
+        String previousProjectId = (current != null) ? current.getProject().getProjectId() : null;
+
         em.merge(projectEmployee);
+        afterCommit(() -> {
+            if (previousEmail != null) {
+                assignmentCache.unassigned(previousEmail, previousProjectId);
+            }
+            assignmentCache.assigned(projectEmployee.getEmployee().getEmail(), projectEmployee.getProject().getProjectId());
+        });
     }
 
     @Override
@@ -52,6 +134,9 @@ public class Project2EmployeeService extends AbstractService implements Project2
         Project2Employee timeRecord = read(id);
         if (timeRecord != null) {
             em.remove(timeRecord);
+            String email = timeRecord.getEmployee().getEmail();
+            String projectId = timeRecord.getProject().getProjectId();
+            afterCommit(() -> assignmentCache.unassigned(email, projectId));
         }
         return timeRecord;
     }
@@ -76,30 +161,24 @@ public class Project2EmployeeService extends AbstractService implements Project2
 
     @Override
     public List<Project2Employee> find(Project project, Employee employee) {
-        List<Project2Employee> allTimeRecords;
-
-        if ((project == null) && (employee == null)) {
-            allTimeRecords = em.createQuery("from Project2Employee pe").getResultList();
-        } else {
-            ArrayList<String> whereClause = new ArrayList<>(3);
-            HashMap<String, Object> parameters = new HashMap<>(3);
-            if (project != null) {
-                whereClause.add("pe.project= :project");
-                parameters.put("project", project);
-            }
-            if (employee != null) {
-                whereClause.add("pe.employee = :employee");
-                parameters.put("employee", employee);
-            }
+        TypedQuery<Project2Employee> q = em.createNamedQuery(
+                NamedQueryRegistry.project2EmployeeSearch(project != null, employee != null), Project2Employee.class);
+        if (project != null) {
+            q.setParameter("project", project);
+        }
+        if (employee != null) {
+            q.setParameter("employee", employee);
+        }
+        return q.getResultList();
+    }
 
-            Query q = em.createQuery("from Project2Employee pe where " + String.join(" and ", whereClause));
-            for (Map.Entry<String, Object> e : parameters.entrySet()) {
-                q.setParameter(e.getKey(), e.getValue());
-            }
+    @Override
+    public boolean isAssigned(Project project, Employee employee) {
+        return assignmentCache.isAssigned(employee.getEmail(), project.getProjectId());
+    }
 
-            allTimeRecords = q.getResultList();
-        }
-        return allTimeRecords;
+    private static String pair(String email, String projectId) {
+        return email + '\n' + projectId;
     }
 
     /**
@@ -112,8 +191,10 @@ public class Project2EmployeeService extends AbstractService implements Project2
      */
     private void checkAllreadyAssigned(Project2Employee projectEmployee) throws PrimaryKeyException {
         // check if allready assigned
-        List<Project2Employee> assignments = find(projectEmployee.getProject(), projectEmployee.getEmployee());
-        if ((assignments != null) && !assignments.isEmpty()) {
+        boolean assigned = exists(em.createNamedQuery(NamedQueryRegistry.PROJECT2EMPLOYEE_EXISTS, String.class)
+                .setParameter("email", projectEmployee.getEmployee().getEmail())
+                .setParameter("projectId", projectEmployee.getProject().getProjectId()));
+        if (assigned) {
             throw new PrimaryKeyException(String.format("Assigment Project [%s] to Employee [%s] already exists",
                     projectEmployee.getProject().toString(),
                     projectEmployee.getEmployee().toString()));
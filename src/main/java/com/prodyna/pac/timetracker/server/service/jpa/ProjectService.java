@@ -6,11 +6,15 @@ package com.prodyna.pac.timetracker.server.service.jpa;
 
 import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.Project;
+import com.prodyna.pac.timetracker.server.cache.ProjectChangedEvent;
+import com.prodyna.pac.timetracker.server.cache.ProjectMetadataCache;
+import com.prodyna.pac.timetracker.server.cache.SearchIndex;
 import com.prodyna.pac.timetracker.server.service.ProjectServices;
 import java.util.ArrayList;
 import java.util.List;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.persistence.Query;
 import org.slf4j.Logger;
@@ -27,9 +31,19 @@ public class ProjectService extends AbstractService implements ProjectServices {
     @Inject
     private Logger log;
 
+    @Inject
+    private SearchIndex searchIndex;
+
+    @Inject
+    private ProjectMetadataCache projectMetadataCache;
+
+    @Inject
+    private Event<ProjectChangedEvent> projectChangedEvent;
+
     @Override
     public void create(Project project) {
         em.persist(project);
+        afterCommit(() -> searchIndex.projectSaved(project));
     }
 
     @Override
@@ -40,6 +54,13 @@ public class ProjectService extends AbstractService implements ProjectServices {
     @Override
     public void update(Project project) {
         em.merge(project);
+        projectChangedEvent.fire(new ProjectChangedEvent(project.getProjectId()));
+        afterCommit(() -> searchIndex.projectSaved(project));
+    }
+
+    @Override
+    public Project readReference(String projectID) {
+        return (projectMetadataCache.get(projectID) != null) ? em.getReference(Project.class, projectID) : null;
     }
 
     @Override
@@ -47,28 +68,33 @@ public class ProjectService extends AbstractService implements ProjectServices {
         Project project = read(projectID);
         if (project != null) {
             em.remove(project);
+            projectChangedEvent.fire(new ProjectChangedEvent(projectID));
+            afterCommit(() -> searchIndex.projectRemoved(projectID));
         }
         return project;
     }
 
     @Override
     public List<Project> find(String searchPattern) {
-        List<Project> allProjects;
-        allProjects = em.createNamedQuery("Project.findAll", Project.class).getResultList();
+        return find(searchPattern, 0, 0);
+    }
 
+    @Override
+    public List<Project> find(String searchPattern, int offset, int limit) {
         if ((searchPattern == null) || (searchPattern.length() == 0)) {
-            return allProjects;
-        } else {
-            searchPattern = searchPattern.toLowerCase();
-            List<Project> ret = new ArrayList<>();
-            for (Project project : allProjects) {
-                if (project.getProjectId().toLowerCase().contains(searchPattern)
-                        || project.getTitle().toLowerCase().contains(searchPattern)
-                        || project.getDescription().toLowerCase().contains(searchPattern)) {
-                    ret.add(project);
-                }
+            return page(em.createNamedQuery("Project.findAll", Project.class), offset, limit).getResultList();
+        } else if (searchIndex.isEnabled()) {
+            List<String> projectIDs = page(searchIndex.findProjects(searchPattern), offset, limit);
+            if (projectIDs.isEmpty()) {
+                return new ArrayList<>();
             }
-            return ret;
+            return inKeyOrder(projectIDs, em.createNamedQuery(NamedQueryRegistry.PROJECT_FIND_BY_KEYS, Project.class)
+                    .setParameter("keys", projectIDs)
+                    .getResultList(), Project::getProjectId);
+        } else {
+            return page(em.createNamedQuery(NamedQueryRegistry.PROJECT_SEARCH, Project.class)
+                    .setParameter("pattern", containsPattern(searchPattern)), offset, limit)
+                    .getResultList();
         }
     }
 
@@ -7,6 +7,7 @@ package com.prodyna.pac.timetracker.server.service.jpa;
 import com.prodyna.pac.timetracker.Security;
 import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.pojo.ChangePassword;
+import com.prodyna.pac.timetracker.server.cache.CredentialCache;
 import com.prodyna.pac.timetracker.server.exception.PasswordChangeException;
 import com.prodyna.pac.timetracker.server.service.SecurityServices;
 import java.security.NoSuchAlgorithmException;
@@ -25,6 +26,9 @@ public class SecurityService extends AbstractService implements SecurityServices
     @Inject
     private Logger log;
 
+    @Inject
+    private CredentialCache credentialCache;
+
     /**
      * Default constructor.
      */
@@ -43,6 +47,7 @@ public class SecurityService extends AbstractService implements SecurityServices
         if (employee.getPassword().equals(Security.passwordHashSHA256(settings.getCurrentPassword()))) {
             employee.setPassword(Security.passwordHashSHA256(settings.getNewPassword()));
             em.merge(employee);
+            afterCommit(() -> credentialCache.invalidate(settings.getEmail()));
             log.info("changed password for {}", settings.getEmail());
         } else {
             throw new PasswordChangeException("Old password is incorrect.");
@@ -54,6 +59,7 @@ public class SecurityService extends AbstractService implements SecurityServices
         Employee employee = em.find(Employee.class, settings.getEmail());
         employee.setPassword(Security.passwordHashSHA256(settings.getNewPassword()));
         em.merge(employee);
+        afterCommit(() -> credentialCache.invalidate(settings.getEmail()));
         log.info("reset password for {}", settings.getEmail());
     }
 }
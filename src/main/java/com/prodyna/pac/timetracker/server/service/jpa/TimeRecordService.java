@@ -4,23 +4,44 @@
  */
 package com.prodyna.pac.timetracker.server.service.jpa;
 
+import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.Project;
 import com.prodyna.pac.timetracker.entity.TimeRecord;
 import com.prodyna.pac.timetracker.entity.TimeRecordStatus;
 import com.prodyna.pac.timetracker.pojo.TimeRecordSearch;
+import com.prodyna.pac.timetracker.server.cache.AssignmentCache;
+import com.prodyna.pac.timetracker.server.cache.ProjectMetadata;
+import com.prodyna.pac.timetracker.server.cache.ProjectMetadataCache;
+import com.prodyna.pac.timetracker.server.cache.TimeRecordIntervalCache;
+import com.prodyna.pac.timetracker.server.entity.TimeRecordDaily;
 import com.prodyna.pac.timetracker.server.exception.EntityDataException;
 import com.prodyna.pac.timetracker.server.exception.SearchParametersException;
+import com.prodyna.pac.timetracker.server.pojo.ReportPeriod;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordResult;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordTotal;
 import com.prodyna.pac.timetracker.server.service.TimeRecordServices;
+import com.prodyna.pac.timetracker.server.tracing.Span;
+import com.prodyna.pac.timetracker.server.tracing.Tracer;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
-import javax.persistence.Query;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
 import org.slf4j.Logger;
 
 /**
@@ -32,15 +53,167 @@ import org.slf4j.Logger;
 @Stateless
 public class TimeRecordService extends AbstractService implements TimeRecordServices {
 
+    /**
+     * Select the {@code primary key} of entries overlapping a given time range.
+     * Touching entries count as overlapping.
+     */
+    private static final String OVERLAP_PROBE_QUERY = "select tr.id from TimeRecord tr"
+            + " where tr.owner = :employee and tr.project = :project and tr.id <> :id"
+            + " and tr.startTime >= :earliestStart and tr.startTime <= :endTime and tr.endTime >= :startTime";
+
+    /**
+     * Select the bookings of an owner that may overlap with a list of new
+     * entries, served by the {@code IX_TR_EMAIL_START_END} index; see
+     * {@link #findOverlappingId(TimeRecord)} for the 24 hours offset.
+     */
+    private static final String OWNER_RANGE_QUERY = "select tr.id, tr.project.projectId, tr.startTime, tr.endTime"
+            + " from TimeRecord tr where tr.owner.email = :email"
+            + " and tr.startTime >= :earliestStart and tr.startTime <= :latestEnd";
+
+    /**
+     * The maximum number of values of an {@code IN} list; longer lists are
+     * split into several statements.
+     */
+    private static final int IN_LIST_SIZE = 500;
+
+    /**
+     * Select the values of {@link TimeRecord}s needed for a status change,
+     * without loading the entities.
+     */
+    private static final String STATUS_CHANGE_QUERY = "select tr.id, tr.recordStatus, tr.owner.email, tr.project.projectId,"
+            + " tr.startTime, tr.endTime, tr.pauseMinutes from TimeRecord tr where tr.id in :ids";
+
+    /**
+     * Set the status of {@link TimeRecord}s; the current status guards
+     * against concurrent changes.
+     */
+    private static final String STATUS_UPDATE_QUERY = "update TimeRecord tr set tr.recordStatus = :recordStatus"
+            + " where tr.id in :ids and tr.recordStatus = :currentStatus";
+
+    /**
+     * Add values to an existing {@link TimeRecordDaily} row.
+     */
+    private static final String DAILY_UPDATE_QUERY = "update TimeRecordDaily d"
+            + " set d.netMinutes = d.netMinutes + :netMinutes, d.recordCount = d.recordCount + :recordCount"
+            + " where d.ownerEmail = :ownerEmail and d.projectId = :projectId"
+            + " and d.bookingDay = :bookingDay and d.recordStatus = :recordStatus";
+
+    /**
+     * Remove a {@link TimeRecordDaily} row that does no longer sum up any
+     * {@link TimeRecord}.
+     */
+    private static final String DAILY_DELETE_EMPTY_QUERY = "delete from TimeRecordDaily d"
+            + " where d.ownerEmail = :ownerEmail and d.projectId = :projectId"
+            + " and d.bookingDay = :bookingDay and d.recordStatus = :recordStatus and d.recordCount <= 0";
+
+    /**
+     * Recreate all {@link TimeRecordDaily} rows from the {@link TimeRecord}s.
+     * {@code DATE(STARTTIME)} matches the day computed by
+     * {@link #bookingDay(Date)}, as {@code DERBY} stores timestamps in the
+     * server time zone.
+     */
+    private static final String DAILY_REBUILD_SQL = "INSERT INTO TIMERECORD_DAILY"
+            + " (OWNER_EMAIL, PROJECT_PROJECTID, BOOKINGDAY, RECORDSTATUS, NETMINUTES, RECORDCOUNT)"
+            + " SELECT OWNER_EMAIL, PROJECT_PROJECTID, DATE(STARTTIME), RECORDSTATUS,"
+            + " SUM({fn TIMESTAMPDIFF(SQL_TSI_MINUTE, STARTTIME, ENDTIME)} - PAUSEMINUTES), COUNT(*)"
+            + " FROM TIMERECORD GROUP BY OWNER_EMAIL, PROJECT_PROJECTID, DATE(STARTTIME), RECORDSTATUS";
+
     @Inject
     private Logger log;
 
+    @Inject
+    private TimeRecordIntervalCache intervalCache;
+
+    @Inject
+    private ProjectMetadataCache projectMetadataCache;
+
+    @Inject
+    private AssignmentCache assignmentCache;
+
     @Override
     public void create(TimeRecord timeRecord) throws EntityDataException, SearchParametersException {
         checkStateTransitionIsValid(null, timeRecord.getRecordStatus());
-        checkTimeRangeIsValid(timeRecord);
-        checkProjectCanBeUsedForBoooking(timeRecord);
-        em.persist(timeRecord);
+        try (Span span = Tracer.startSpan("TimeRecordService.checkTimeRangeIsValid")) {
+            checkTimeRangeIsValid(timeRecord);
+        }
+        try (Span span = Tracer.startSpan("TimeRecordService.checkProjectCanBeUsedForBoooking")) {
+            checkProjectCanBeUsedForBoooking(timeRecord);
+        }
+        try (Span span = Tracer.startSpan("em.persist")) {
+            em.persist(timeRecord);
+        }
+        try (Span span = Tracer.startSpan("TimeRecordService.addToDailyTotals")) {
+            addToDailyTotals(timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId(), timeRecord.getStartTime(),
+                    timeRecord.getRecordStatus(), netMinutes(timeRecord), 1);
+        }
+        afterCommit(() -> intervalCache.saved(timeRecord));
+    }
+
+    @Override
+    public List<TimeRecordResult> createAll(List<TimeRecord> timeRecords) {
+        List<TimeRecordResult> results = new ArrayList<>(timeRecords.size());
+        List<Integer> accepted = new ArrayList<>(timeRecords.size());
+        for (int i = 0; i < timeRecords.size(); i++) {
+            results.add(new TimeRecordResult(i));
+            try {
+                checkBatchEntryIsValid(timeRecords.get(i));
+                accepted.add(i);
+            }
+            catch (EntityDataException | SearchParametersException e) {
+                results.get(i).setError(e.getMessage());
+            }
+        }
+
+        // check overlaps per owner: within the batch, then against the stored entries
+        accepted.sort(Comparator.comparing((Integer i) -> timeRecords.get(i).getOwner().getEmail())
+                .thenComparing(i -> timeRecords.get(i).getStartTime()));
+        List<TimeRecord> created = new ArrayList<>(accepted.size());
+        int ownerStart = 0;
+        while (ownerStart < accepted.size()) {
+            String ownerEmail = timeRecords.get(accepted.get(ownerStart)).getOwner().getEmail();
+            int ownerEnd = ownerStart;
+            while ((ownerEnd < accepted.size()) && ownerEmail.equals(timeRecords.get(accepted.get(ownerEnd)).getOwner().getEmail())) {
+                ownerEnd++;
+            }
+            List<Integer> ownerEntries = accepted.subList(ownerStart, ownerEnd);
+            List<Object[]> stored = intervalCache.isEnabled() ? null : findOwnerRange(timeRecords, ownerEntries);
+
+            Map<String, Date> lastEndPerProject = new HashMap<>();
+            for (int i : ownerEntries) {
+                TimeRecord timeRecord = timeRecords.get(i);
+                String projectId = timeRecord.getProject().getProjectId();
+                Date lastEnd = lastEndPerProject.get(projectId);
+                String overlappingId = (stored != null) ? findOverlappingId(timeRecord, stored) : intervalCache.findOverlappingId(timeRecord);
+                if ((lastEnd != null) && !lastEnd.before(timeRecord.getStartTime())) {
+                    results.get(i).setError(String.format("TimeRecord [%s] overlaps with another entry of the batch", timeRecord.toString()));
+                } else if (overlappingId != null) {
+                    results.get(i).setError(String.format("TimeRecord [%s] overlaps with existing entry: [%s]", timeRecord.toString(), overlappingId));
+                } else {
+                    lastEndPerProject.put(projectId, timeRecord.getEndTime());
+                    created.add(timeRecord);
+                }
+            }
+            ownerStart = ownerEnd;
+        }
+
+        // the inserts are sent as JDBC batches on flush, see persistence.xml
+        Map<List<Object>, long[]> dailyTotals = new HashMap<>();
+        for (TimeRecord timeRecord : created) {
+            em.persist(timeRecord);
+            collectDailyTotals(dailyTotals, timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId(),
+                    timeRecord.getStartTime(), timeRecord.getRecordStatus(), netMinutes(timeRecord), 1);
+        }
+        addToDailyTotals(dailyTotals);
+        for (int i = 0; i < timeRecords.size(); i++) {
+            if (results.get(i).getError() == null) {
+                results.get(i).setId(timeRecords.get(i).getId());
+                results.get(i).setOwnerEmail(timeRecords.get(i).getOwner().getEmail());
+                results.get(i).setProjectId(timeRecords.get(i).getProject().getProjectId());
+            }
+        }
+        afterCommit(() -> created.forEach(intervalCache::saved));
+        log.info("Created {} of {} TimeRecords", created.size(), timeRecords.size());
+        return results;
     }
 
     @Override
@@ -51,11 +224,123 @@ public class TimeRecordService extends AbstractService implements TimeRecordServ
     @Override
     public void update(TimeRecord timeRecord) throws EntityDataException, SearchParametersException {
         TimeRecord currentRecord = read(timeRecord.getId());
+        // keep the current values, as the managed entity is changed by the merge
+        String previousOwnerEmail = currentRecord.getOwner().getEmail();
+        String previousProjectId = currentRecord.getProject().getProjectId();
+        Date previousStartTime = currentRecord.getStartTime();
+        TimeRecordStatus previousStatus = currentRecord.getRecordStatus();
+        long previousNetMinutes = netMinutes(currentRecord);
+
         checkUpdateIsValid(currentRecord, timeRecord);
         checkStateTransitionIsValid(currentRecord.getRecordStatus(), timeRecord.getRecordStatus());
-        checkTimeRangeIsValid(timeRecord);
-        checkProjectCanBeUsedForBoooking(timeRecord);
-        em.merge(timeRecord);
+        try (Span span = Tracer.startSpan("TimeRecordService.checkTimeRangeIsValid")) {
+            checkTimeRangeIsValid(timeRecord);
+        }
+        try (Span span = Tracer.startSpan("TimeRecordService.checkProjectCanBeUsedForBoooking")) {
+            checkProjectCanBeUsedForBoooking(timeRecord);
+        }
+        try (Span span = Tracer.startSpan("em.merge")) {
+            em.merge(timeRecord);
+        }
+        try (Span span = Tracer.startSpan("TimeRecordService.addToDailyTotals")) {
+            if (previousOwnerEmail.equals(timeRecord.getOwner().getEmail())
+                    && previousProjectId.equals(timeRecord.getProject().getProjectId())
+                    && bookingDay(previousStartTime).equals(bookingDay(timeRecord.getStartTime()))
+                    && (previousStatus == timeRecord.getRecordStatus())) {
+                // same daily row, only the minutes may change
+                addToDailyTotals(previousOwnerEmail, previousProjectId, previousStartTime, previousStatus,
+                        netMinutes(timeRecord) - previousNetMinutes, 0);
+            } else {
+                addToDailyTotals(previousOwnerEmail, previousProjectId, previousStartTime, previousStatus, -previousNetMinutes, -1);
+                addToDailyTotals(timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId(), timeRecord.getStartTime(),
+                        timeRecord.getRecordStatus(), netMinutes(timeRecord), 1);
+            }
+        }
+        afterCommit(() -> {
+            if (!previousOwnerEmail.equals(timeRecord.getOwner().getEmail())) {
+                intervalCache.removed(previousOwnerEmail, timeRecord.getId());
+            }
+            intervalCache.saved(timeRecord);
+        });
+    }
+
+    @Override
+    public List<TimeRecordResult> changeStatus(List<String> ids, TimeRecordStatus recordStatus) throws EntityDataException {
+        if ((ids == null) || (recordStatus == null)) {
+            throw new EntityDataException("The TimeRecords and the new status must be specified");
+        }
+
+        // read the current values of all entries, without loading the entities
+        Map<String, Object[]> rows = new HashMap<>();
+        for (List<String> chunk : chunks(new ArrayList<>(new LinkedHashSet<>(ids)))) {
+            for (Object[] row : em.createQuery(STATUS_CHANGE_QUERY, Object[].class).setParameter("ids", chunk).getResultList()) {
+                rows.put((String) row[0], row);
+            }
+        }
+
+        List<TimeRecordResult> results = new ArrayList<>(ids.size());
+        Map<TimeRecordStatus, List<String>> idsPerStatus = new EnumMap<>(TimeRecordStatus.class);
+        Map<List<Object>, long[]> dailyTotals = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            TimeRecordResult result = new TimeRecordResult(i);
+            results.add(result);
+            try {
+                Object[] row = rows.get(id);
+                if (row == null) {
+                    throw new EntityDataException(String.format("The TimeRecord [%s] does not exist.", id));
+                } else if (!seen.add(id)) {
+                    throw new EntityDataException(String.format("The TimeRecord [%s] is listed more then once.", id));
+                }
+                TimeRecordStatus currentStatus = (TimeRecordStatus) row[1];
+                String ownerEmail = (String) row[2];
+                String projectId = (String) row[3];
+                Date startTime = (Date) row[4];
+                Date endTime = (Date) row[5];
+                checkStateTransitionIsValid(currentStatus, recordStatus);
+                checkProjectCanBeUsedForBoooking(projectId, startTime, endTime);
+                if (!assignmentCache.isAssigned(ownerEmail, projectId)) {
+                    throw new EntityDataException(String.format("The employee [%s] is not assigned to project [%s]", ownerEmail, projectId));
+                }
+
+                // the status is part of the daily totals key: move the minutes to the new status
+                long netMinutes = netMinutes(startTime, endTime, ((Number) row[6]).intValue());
+                collectDailyTotals(dailyTotals, ownerEmail, projectId, startTime, currentStatus, -netMinutes, -1);
+                collectDailyTotals(dailyTotals, ownerEmail, projectId, startTime, recordStatus, netMinutes, 1);
+                idsPerStatus.computeIfAbsent(currentStatus, s -> new ArrayList<>()).add(id);
+                result.setId(id);
+                result.setOwnerEmail(ownerEmail);
+                result.setProjectId(projectId);
+            }
+            catch (EntityDataException e) {
+                result.setError(e.getMessage());
+            }
+        }
+
+        // one set based update per current status
+        int expected = 0;
+        int updated = 0;
+        for (Map.Entry<TimeRecordStatus, List<String>> entries : idsPerStatus.entrySet()) {
+            for (List<String> chunk : chunks(entries.getValue())) {
+                updated += em.createQuery(STATUS_UPDATE_QUERY)
+                        .setParameter("recordStatus", recordStatus)
+                        .setParameter("currentStatus", entries.getKey())
+                        .setParameter("ids", chunk)
+                        .executeUpdate();
+            }
+            expected += entries.getValue().size();
+        }
+        if (updated != expected) {
+            // the daily totals would not match, so roll back
+            String message = String.format("%d of %d TimeRecords were changed concurrently, no status was changed", expected - updated, expected);
+            log.info(message);
+            setRollbackOnly();
+            throw new EntityDataException(message);
+        }
+        addToDailyTotals(dailyTotals);
+        log.info("Changed the status of {} of {} TimeRecords to {}", updated, ids.size(), recordStatus);
+        return results;
     }
 
     @Override
@@ -65,41 +350,59 @@ public class TimeRecordService extends AbstractService implements TimeRecordServ
             checkProjectCanBeUsedForBoooking(timeRecord);
             checkDeleteIsValid(timeRecord);
             em.remove(timeRecord);
+            addToDailyTotals(timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId(), timeRecord.getStartTime(),
+                    timeRecord.getRecordStatus(), -netMinutes(timeRecord), -1);
+            afterCommit(() -> intervalCache.removed(timeRecord.getOwner().getEmail(), timeRecord.getId()));
         }
         return timeRecord;
     }
 
     @Override
     public List<TimeRecord> find(TimeRecordSearch searchPattern) throws SearchParametersException {
+        return find(searchPattern, null, 0);
+    }
+
+    @Override
+    public List<TimeRecord> find(TimeRecordSearch searchPattern, String after, int limit) throws SearchParametersException {
         List<TimeRecord> timeRecords;
+        boolean paged = (after != null) || (limit > 0);
+        boolean hasSearchValues = (searchPattern != null) && searchPattern.hasValueSet();
 
-        if ((searchPattern == null) || (searchPattern.hasValueSet() == false)) {
+        if ((hasSearchValues == false) && (paged == false)) {
             timeRecords = em.createNamedQuery("TimeRecord.findAll", TimeRecord.class).getResultList();
         } else {
-            searchPattern.validate(); // throws exception
+            boolean hasEmployee = false;
+            boolean hasProject = false;
+            boolean hasFrom = false;
+            boolean hasThrough = false;
+            if (hasSearchValues) {
+                searchPattern.validate(); // throws exception
 
-            ArrayList<String> whereClause = new ArrayList<>(5);
-            HashMap<String, Object> parameters = new HashMap<>(5);
-            if (searchPattern.hasEmployee()) {
-                whereClause.add("tr.owner = :employee");
-                parameters.put("employee", searchPattern.getEmployee());
+                hasEmployee = searchPattern.hasEmployee();
+                hasProject = searchPattern.hasProject();
+                hasFrom = searchPattern.hasFrom();
+                hasThrough = searchPattern.hasThrough();
             }
-            if (searchPattern.hasProject()) {
-                whereClause.add("tr.project = :project");
-                parameters.put("project", searchPattern.getProject());
+
+            TypedQuery<TimeRecord> q = em.createNamedQuery(
+                    NamedQueryRegistry.timeRecordSearch(hasEmployee, hasProject, hasFrom, hasThrough, paged), TimeRecord.class);
+            if (paged) {
+                q.setParameter("after", (after != null) ? after : "");
             }
-            if (searchPattern.hasFrom()) {
-                whereClause.add("tr.startTime >= :from");
-                parameters.put("from", searchPattern.getFrom());
+            if (hasEmployee) {
+                q.setParameter("employee", searchPattern.getEmployee());
             }
-            if (searchPattern.hasThrough()) {
-                whereClause.add("tr.endTime <= :through");
-                parameters.put("through", searchPattern.getThrough());
+            if (hasProject) {
+                q.setParameter("project", searchPattern.getProject());
             }
-
-            Query q = em.createQuery("from TimeRecord tr where " + String.join(" and ", whereClause));
-            for (Map.Entry<String, Object> e : parameters.entrySet()) {
-                q.setParameter(e.getKey(), e.getValue());
+            if (hasFrom) {
+                q.setParameter("from", searchPattern.getFrom());
+            }
+            if (hasThrough) {
+                q.setParameter("through", searchPattern.getThrough());
+            }
+            if (limit > 0) {
+                q.setMaxResults(limit);
             }
 
             timeRecords = q.getResultList();
@@ -107,6 +410,219 @@ public class TimeRecordService extends AbstractService implements TimeRecordServ
         return timeRecords;
     }
 
+    @Override
+    public List<TimeRecordTotal> findTotals(TimeRecordSearch searchPattern, ReportPeriod period) throws SearchParametersException {
+        boolean hasEmployee = false;
+        boolean hasProject = false;
+        boolean hasFrom = false;
+        boolean hasThrough = false;
+        if ((searchPattern != null) && searchPattern.hasValueSet()) {
+            searchPattern.validate(); // throws exception
+
+            hasEmployee = searchPattern.hasEmployee();
+            hasProject = searchPattern.hasProject();
+            hasFrom = searchPattern.hasFrom();
+            hasThrough = searchPattern.hasThrough();
+        }
+
+        TypedQuery<Object[]> q = em.createNamedQuery(
+                NamedQueryRegistry.timeRecordTotals(hasEmployee, hasProject, hasFrom, hasThrough), Object[].class);
+        if (hasEmployee) {
+            q.setParameter("ownerEmail", searchPattern.getEmployee().getEmail());
+        }
+        if (hasProject) {
+            q.setParameter("projectId", searchPattern.getProject().getProjectId());
+        }
+        if (hasFrom) {
+            q.setParameter("from", bookingDay(searchPattern.getFrom()));
+        }
+        if (hasThrough) {
+            q.setParameter("through", bookingDay(searchPattern.getThrough()));
+        }
+        List<Object[]> dailyTotals = q.getResultList();
+
+        // fold the daily totals into the requested period, ordered by period start
+        TreeMap<String, TimeRecordTotal> totals = new TreeMap<>();
+        for (Object[] row : dailyTotals) {
+            LocalDate periodStart = period.startOf(new java.sql.Date(((Date) row[0]).getTime()).toLocalDate());
+            String projectId = (String) row[1];
+            TimeRecordStatus recordStatus = TimeRecordStatus.values()[((Number) row[2]).intValue()];
+
+            String key = String.join("|", periodStart.toString(), projectId, recordStatus.name());
+            TimeRecordTotal total = totals.get(key);
+            if (total == null) {
+                total = new TimeRecordTotal(Date.from(periodStart.atStartOfDay(ZoneId.systemDefault()).toInstant()), projectId, recordStatus);
+                totals.put(key, total);
+            }
+            total.add(((Number) row[3]).longValue(), ((Number) row[4]).longValue());
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    @Override
+    public int rebuildDailyTotals() {
+        em.createQuery("delete from TimeRecordDaily d").executeUpdate();
+        int rows = em.createNativeQuery(DAILY_REBUILD_SQL).executeUpdate();
+        log.info("Rebuilt {} TimeRecordDaily rows", rows);
+        return rows;
+    }
+
+    /**
+     * Add values to the matching {@link TimeRecordDaily} row in the current
+     * transaction. The row is created if missing, and removed when it does no
+     * longer sum up any {@link TimeRecord}.
+     * <p/>
+     * Creating a row is serialized by locking the owner: two transactions
+     * booking the first entry of the same day would both find no row, and the
+     * second insert would fail on the {@code primary key}. After the lock is
+     * granted the update is tried again, as the row may have been committed
+     * in the meantime. A missing row for removing values means the totals are
+     * out of sync, which is logged; see {@link #rebuildDailyTotals()}.
+     *
+     * @param ownerEmail The {@code primary key} of the owner.
+     * @param projectId The {@code primary key} of the project.
+     * @param startTime The start of the booking, which defines the day.
+     * @param recordStatus The status of the booking.
+     * @param netMinutes The net minutes to add, negative for removing.
+     * @param recordCount The number of bookings to add, negative for removing.
+     */
+    private void addToDailyTotals(String ownerEmail, String projectId, Date startTime, TimeRecordStatus recordStatus,
+            long netMinutes, int recordCount) {
+        Date bookingDay = bookingDay(startTime);
+        int updated = updateDailyTotals(ownerEmail, projectId, bookingDay, recordStatus, netMinutes, recordCount);
+
+        if ((updated == 0) && (recordCount > 0)) {
+            em.find(Employee.class, ownerEmail, LockModeType.PESSIMISTIC_WRITE);
+            updated = updateDailyTotals(ownerEmail, projectId, bookingDay, recordStatus, netMinutes, recordCount);
+            if (updated == 0) {
+                em.persist(new TimeRecordDaily(ownerEmail, projectId, bookingDay, recordStatus, netMinutes, recordCount));
+                // make the row visible for following bulk updates in the same transaction
+                em.flush();
+            }
+        } else if (updated == 0) {
+            log.warn("No TimeRecordDaily row [{}, {}, {}, {}] for adding {} minutes and {} bookings, the totals must be rebuilt",
+                    ownerEmail, projectId, bookingDay, recordStatus, netMinutes, recordCount);
+        } else if (recordCount < 0) {
+            em.createQuery(DAILY_DELETE_EMPTY_QUERY)
+                    .setParameter("ownerEmail", ownerEmail)
+                    .setParameter("projectId", projectId)
+                    .setParameter("bookingDay", bookingDay)
+                    .setParameter("recordStatus", recordStatus.ordinal())
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * Add values to an existing {@link TimeRecordDaily} row.
+     *
+     * @return The number of updated rows, {@code 0} if the row is missing.
+     */
+    private int updateDailyTotals(String ownerEmail, String projectId, Date bookingDay, TimeRecordStatus recordStatus,
+            long netMinutes, int recordCount) {
+        return em.createQuery(DAILY_UPDATE_QUERY)
+                .setParameter("netMinutes", netMinutes)
+                .setParameter("recordCount", recordCount)
+                .setParameter("ownerEmail", ownerEmail)
+                .setParameter("projectId", projectId)
+                .setParameter("bookingDay", bookingDay)
+                .setParameter("recordStatus", recordStatus.ordinal())
+                .executeUpdate();
+    }
+
+    /**
+     * Sum up values for a {@link TimeRecordDaily} row, for applying them by
+     * {@link #addToDailyTotals(Map)}.
+     *
+     * @param dailyTotals The net minutes and number of bookings per owner,
+     * project, day and status.
+     * @param ownerEmail The {@code primary key} of the owner.
+     * @param projectId The {@code primary key} of the project.
+     * @param startTime The start of the booking, which defines the day.
+     * @param recordStatus The status of the booking.
+     * @param netMinutes The net minutes to add, negative for removing.
+     * @param recordCount The number of bookings to add, negative for removing.
+     */
+    private static void collectDailyTotals(Map<List<Object>, long[]> dailyTotals, String ownerEmail, String projectId,
+            Date startTime, TimeRecordStatus recordStatus, long netMinutes, int recordCount) {
+        List<Object> key = Arrays.asList(ownerEmail, projectId, bookingDay(startTime), recordStatus);
+        long[] totals = dailyTotals.computeIfAbsent(key, k -> new long[2]);
+        totals[0] += netMinutes;
+        totals[1] += recordCount;
+    }
+
+    /**
+     * Apply the values collected by
+     * {@link #collectDailyTotals(Map, String, String, Date, TimeRecordStatus, long, int)},
+     * with one update per {@link TimeRecordDaily} row. The rows are applied
+     * ordered by owner, so concurrent batches lock the owners in the same
+     * order.
+     *
+     * @param dailyTotals The net minutes and number of bookings per owner,
+     * project, day and status.
+     */
+    private void addToDailyTotals(Map<List<Object>, long[]> dailyTotals) {
+        List<Map.Entry<List<Object>, long[]>> entries = new ArrayList<>(dailyTotals.entrySet());
+        entries.sort(Comparator.comparing(daily -> (String) daily.getKey().get(0)));
+        for (Map.Entry<List<Object>, long[]> daily : entries) {
+            List<Object> key = daily.getKey();
+            long[] totals = daily.getValue();
+            if ((totals[0] != 0) || (totals[1] != 0)) {
+                addToDailyTotals((String) key.get(0), (String) key.get(1), (Date) key.get(2), (TimeRecordStatus) key.get(3),
+                        totals[0], (int) totals[1]);
+            }
+        }
+    }
+
+    /**
+     * Get the net minutes of a {@link TimeRecord}: the booked time range minus
+     * the pause.
+     *
+     * @param timeRecord The {@link TimeRecord}.
+     * @return The net minutes.
+     */
+    private static long netMinutes(TimeRecord timeRecord) {
+        return netMinutes(timeRecord.getStartTime(), timeRecord.getEndTime(), timeRecord.getPauseMinutes());
+    }
+
+    /**
+     * Get the net minutes of a booking: the booked time range minus the pause.
+     *
+     * @param startTime The start of the booking.
+     * @param endTime The end of the booking.
+     * @param pauseMinutes The pause of the booking.
+     * @return The net minutes.
+     */
+    private static long netMinutes(Date startTime, Date endTime, int pauseMinutes) {
+        return ChronoUnit.MINUTES.between(startTime.toInstant(), endTime.toInstant()) - pauseMinutes;
+    }
+
+    /**
+     * Split a list into parts of at most {@value #IN_LIST_SIZE} values, for
+     * {@code IN} lists.
+     *
+     * @param <T> The value type.
+     * @param values The values.
+     * @return The parts, views of the list.
+     */
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += IN_LIST_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + IN_LIST_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Get the day of a timestamp in the server time zone.
+     *
+     * @param timestamp The timestamp.
+     * @return The day, at midnight.
+     */
+    private static Date bookingDay(Date timestamp) {
+        LocalDate day = timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
     /**
      * Check if the {@link TimeRecord} time range is valid: e. g. this means the
      * new record does not overlap with existing entries, the pasue is less then
@@ -117,6 +633,44 @@ public class TimeRecordService extends AbstractService implements TimeRecordServ
      * @throws SearchParametersException
      */
     private void checkTimeRangeIsValid(TimeRecord timeRecord) throws EntityDataException, SearchParametersException {
+        checkDurationIsValid(timeRecord);
+        checkOwnerAndProjectAreSet(timeRecord);
+
+        // probe for a single overlapping entry, without loading any entities
+        String overlappingId = intervalCache.isEnabled()
+                ? intervalCache.findOverlappingId(timeRecord)
+                : findOverlappingId(timeRecord);
+        if (overlappingId != null) {
+            String message = String.format("TimeRecord [%s] overlaps with existing entry: [%s]", timeRecord.toString(), overlappingId);
+            log.info(message);
+            throw new EntityDataException(message);
+        }
+    }
+
+    /**
+     * Check if owner and {@link Project} of the {@link TimeRecord} are
+     * specified, as required for searching the surrounding entries.
+     *
+     * @param timeRecord The {@link TimeRecord} to check.
+     * @throws SearchParametersException
+     */
+    private void checkOwnerAndProjectAreSet(TimeRecord timeRecord) throws SearchParametersException {
+        if (timeRecord.getOwner() == null) {
+            throw new SearchParametersException(String.format("TimeRecord has no owner: [%s]", timeRecord.toString()));
+        }
+        if (timeRecord.getProject() == null) {
+            throw new SearchParametersException(String.format("TimeRecord has no project: [%s]", timeRecord.toString()));
+        }
+    }
+
+    /**
+     * Check if the duration of the {@link TimeRecord} is valid: the pause is
+     * less then the booking time, and the booking is less then 24 hours.
+     *
+     * @param timeRecord The {@link TimeRecord} to check.
+     * @throws EntityDataException
+     */
+    private void checkDurationIsValid(TimeRecord timeRecord) throws EntityDataException {
         // No booking can span more then 24 hours
         long bookingHours = ChronoUnit.HOURS.between(timeRecord.getStartTime().toInstant(), timeRecord.getEndTime().toInstant());
         if (bookingHours >= 24) {
@@ -132,32 +686,98 @@ public class TimeRecordService extends AbstractService implements TimeRecordServ
             log.info(message);
             throw new EntityDataException(message);
         }
+    }
+
+    /**
+     * Check a {@link TimeRecord} of a batch, like {@link #create(TimeRecord)}
+     * but without the overlap checks, and check the assignment of the owner
+     * to the {@link Project}.
+     *
+     * @param timeRecord The new {@link TimeRecord} to check.
+     * @throws EntityDataException
+     * @throws SearchParametersException
+     */
+    private void checkBatchEntryIsValid(TimeRecord timeRecord) throws EntityDataException, SearchParametersException {
+        checkOwnerAndProjectAreSet(timeRecord);
+        checkStateTransitionIsValid(null, timeRecord.getRecordStatus());
+        checkDurationIsValid(timeRecord);
+        checkProjectCanBeUsedForBoooking(timeRecord);
+        if (!assignmentCache.isAssigned(timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId())) {
+            throw new EntityDataException(String.format("The employee [%s] is not assigned to project [%s]",
+                    timeRecord.getOwner().getEmail(), timeRecord.getProject().getProjectId()));
+        }
+    }
 
-        // select a bunch of time entries arround the new timeRecord
-        TimeRecordSearch searchPattern = new TimeRecordSearch();
-        searchPattern.setProject(timeRecord.getProject());
-        searchPattern.setEmployee(timeRecord.getOwner());
-        searchPattern.setFrom(Date.from(timeRecord.getStartTime().toInstant().minus(2, ChronoUnit.DAYS)));
-        searchPattern.setThrough(Date.from(timeRecord.getStartTime().toInstant().plus(2, ChronoUnit.DAYS)));
-        List<TimeRecord> timeRecords = find(searchPattern);
-
-        for (TimeRecord current : timeRecords) {
-            // in case of update: skip the database record itself
-            if (current.getId().equals(timeRecord.getId())) {
-                // ok, continue
-            } // check 1: new record before current record
-            else if (timeRecord.getEndTime().before(current.getStartTime())) {
-                // ok, continue
-            } // check 2: new record after current record
-            else if (timeRecord.getStartTime().after(current.getEndTime())) {
-                // ok, continue
-            } // overlap
-            else {
-                String message = String.format("TimeRecord [%s] overlaps with existing entry: [%s]", timeRecord.toString(), current.toString());
-                log.info(message);
-                throw new EntityDataException(message);
+    /**
+     * Read the stored bookings of one owner that may overlap with new
+     * {@link TimeRecord}s, with a single range query.
+     *
+     * @param timeRecords The new {@link TimeRecord}s.
+     * @param ownerEntries The indexes of the entries of one owner, ordered by
+     * start time.
+     * @return The {@code primary key}, project id, start time and end time of
+     * the stored bookings.
+     */
+    private List<Object[]> findOwnerRange(List<TimeRecord> timeRecords, List<Integer> ownerEntries) {
+        TimeRecord first = timeRecords.get(ownerEntries.get(0));
+        Date latestEnd = first.getEndTime();
+        for (int i : ownerEntries) {
+            if (timeRecords.get(i).getEndTime().after(latestEnd)) {
+                latestEnd = timeRecords.get(i).getEndTime();
             }
         }
+        return em.createQuery(OWNER_RANGE_QUERY, Object[].class)
+                .setParameter("email", first.getOwner().getEmail())
+                .setParameter("earliestStart", Date.from(first.getStartTime().toInstant().minus(1, ChronoUnit.DAYS)))
+                .setParameter("latestEnd", latestEnd)
+                .getResultList();
+    }
+
+    /**
+     * Find a stored booking of the same {@link Project} that overlaps with the
+     * provided {@link TimeRecord}. Touching entries count as overlapping.
+     *
+     * @param timeRecord The {@link TimeRecord} to check.
+     * @param stored The stored bookings, see
+     * {@link #findOwnerRange(List, List)}.
+     * @return The {@code primary key} of the first overlapping entry, or
+     * {@code null} if there is no overlap.
+     */
+    private static String findOverlappingId(TimeRecord timeRecord, List<Object[]> stored) {
+        for (Object[] row : stored) {
+            if (timeRecord.getProject().getProjectId().equals(row[1])
+                    && (((Date) row[2]).getTime() <= timeRecord.getEndTime().getTime())
+                    && (((Date) row[3]).getTime() >= timeRecord.getStartTime().getTime())) {
+                return (String) row[0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the {@code primary key} of a {@link TimeRecord} of the same owner
+     * and {@link Project} that overlaps with the provided {@link TimeRecord}.
+     * The provided record itself is skipped, which is needed for updates.
+     * <p/>
+     * The query is served by the {@code IX_TR_EMAIL_START_END} index: as no
+     * booking can span more then 24 hours, any overlapping entry must start
+     * within 24 hours before the start of the provided record.
+     *
+     * @param timeRecord The {@link TimeRecord} to check.
+     * @return The {@code primary key} of the first overlapping entry, or
+     * {@code null} if there is no overlap.
+     */
+    private String findOverlappingId(TimeRecord timeRecord) {
+        List<String> ids = em.createQuery(OVERLAP_PROBE_QUERY, String.class)
+                .setParameter("employee", timeRecord.getOwner())
+                .setParameter("project", timeRecord.getProject())
+                .setParameter("id", (timeRecord.getId() != null) ? timeRecord.getId() : "")
+                .setParameter("earliestStart", Date.from(timeRecord.getStartTime().toInstant().minus(1, ChronoUnit.DAYS)))
+                .setParameter("startTime", timeRecord.getStartTime())
+                .setParameter("endTime", timeRecord.getEndTime())
+                .setMaxResults(1)
+                .getResultList();
+        return ids.isEmpty() ? null : ids.get(0);
     }
 
     /**
@@ -220,6 +840,7 @@ public class TimeRecordService extends AbstractService implements TimeRecordServ
     /**
      * Check if the referenced {@link Project} can be used for a booking:
      * <ul>
+     * <li>the project exists</li>
      * <li>the project is not locked</li>
      * <li>the {@link TimeRecord} is within the {@link Project} date range</li>
      * </ul>
@@ -228,21 +849,42 @@ public class TimeRecordService extends AbstractService implements TimeRecordServ
      * @throws EntityDataException
      */
     private void checkProjectCanBeUsedForBoooking(TimeRecord timeRecord) throws EntityDataException {
-        // multi user environment: ensure latest availble project data
-        timeRecord.setProject(em.find(Project.class, timeRecord.getProject().getProjectId()));
+        ProjectMetadata project = checkProjectCanBeUsedForBoooking(timeRecord.getProject().getProjectId(),
+                timeRecord.getStartTime(), timeRecord.getEndTime());
+        timeRecord.setProject(em.getReference(Project.class, project.getProjectId()));
+    }
+
+    /**
+     * Check if a {@link Project} can be used for a booking, see
+     * {@link #checkProjectCanBeUsedForBoooking(TimeRecord)}.
+     *
+     * @param projectId The {@code primary key} of the {@link Project}.
+     * @param startTime The start of the booking.
+     * @param endTime The end of the booking.
+     * @return The cached {@link ProjectMetadata}.
+     * @throws EntityDataException
+     */
+    private ProjectMetadata checkProjectCanBeUsedForBoooking(String projectId, Date startTime, Date endTime) throws EntityDataException {
+        // multi user environment: the cache is updated on every project change
+        ProjectMetadata project = projectMetadataCache.get(projectId);
+        if (project == null) {
+            String message = String.format("The project [%s] does not exist.", projectId);
+            log.info(message);
+            throw new EntityDataException(message);
+        }
 
-        if (timeRecord.getProject().isLocked()) {
+        if (project.isLocked()) {
             String message = "The project is locked, no TimeRecord actions allowed.";
             log.info(message);
             throw new EntityDataException(message);
         }
 
-        if (timeRecord.getStartTime().before(timeRecord.getProject().getStartDate())
-                || timeRecord.getEndTime().after(timeRecord.getProject().getEndDate())) {
+        if (!project.contains(startTime, endTime)) {
             String message = String.format("The TimeRecord is not within the project's date range.");
             log.info(message);
             throw new EntityDataException(message);
         }
+        return project;
     }
 
     /**
@@ -0,0 +1,145 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One timed phase of a {@code Request}, measured by {@link System#nanoTime()}.
+ * A span is started by {@link Tracer} and ended by {@link #close()}, so it can
+ * be used in a {@code try}-with-resources statement. Spans are only used by
+ * the thread that started them.
+ *
+ * @author apatrikis
+ */
+public final class Span implements AutoCloseable {
+
+    /**
+     * The maximum number of child spans kept per span, further children are
+     * only counted.
+     */
+    public static final int MAX_CHILDREN = 64;
+
+    /**
+     * The span that is returned if no trace is active, it records nothing.
+     */
+    static final Span NOOP = new Span(null, null, null);
+
+    private final String name;
+    private final Span parent;
+    private final String requestId;
+    private final long startNanos;
+    private long endNanos;
+    private List<Span> children;
+    private int droppedChildren;
+
+    /**
+     * Constructor.
+     *
+     * @param name The name of the phase.
+     * @param parent The enclosing span, {@code null} for the root span.
+     * @param requestId The id of the {@code Request}, taken from the parent
+     * for child spans.
+     */
+    Span(String name, Span parent, String requestId) {
+        this.name = name;
+        this.parent = parent;
+        this.requestId = (parent != null) ? parent.requestId : requestId;
+        this.startNanos = System.nanoTime();
+        if (parent != null) {
+            parent.addChild(this);
+        }
+    }
+
+    /**
+     * End the span.
+     */
+    @Override
+    public void close() {
+        if (this != NOOP) {
+            endNanos = System.nanoTime();
+            Tracer.end(this);
+        }
+    }
+
+    /**
+     * Get the name of the phase.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the id of the {@code Request} this span belongs to.
+     *
+     * @return The request id, may be {@code null} outside a {@code Request}.
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Get the duration of the span.
+     *
+     * @return The duration in nanoseconds, up to now if the span is not ended.
+     */
+    public long getDurationNanos() {
+        return ((endNanos != 0) ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Get the enclosing span.
+     *
+     * @return The parent, {@code null} for the root span.
+     */
+    Span getParent() {
+        return parent;
+    }
+
+    /**
+     * Append this span and its children as an indented tree, one line per
+     * span with its duration and its share of the root span.
+     *
+     * @param sb The buffer to append to.
+     * @param depth The indentation depth.
+     * @param rootNanos The duration of the root span.
+     */
+    void formatTo(StringBuilder sb, int depth, long rootNanos) {
+        long nanos = getDurationNanos();
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        sb.append(name).append(' ').append(nanos / 1000 / 1000.0).append("ms");
+        if (rootNanos > 0) {
+            sb.append(" (").append(nanos * 100 / rootNanos).append("%)");
+        }
+        sb.append('\n');
+        if (children != null) {
+            for (Span child : children) {
+                child.formatTo(sb, depth + 1, rootNanos);
+            }
+        }
+        if (droppedChildren > 0) {
+            for (int i = 0; i <= depth; i++) {
+                sb.append("  ");
+            }
+            sb.append("... ").append(droppedChildren).append(" more\n");
+        }
+    }
+
+    private void addChild(Span child) {
+        if (children == null) {
+            children = new ArrayList<>(4);
+        }
+        if (children.size() < MAX_CHILDREN) {
+            children.add(child);
+        } else {
+            droppedChildren++;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.tracing;
+
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Creates the {@link Span}s of the current thread. A trace is started for an
+ * intercepted call and linked to the {@code Request} by the {@code UUID} of the
+ * {@link MDC}; nested phases are traced by
+ * <code>try (Span span = Tracer.startSpan("phase")) { ... }</code>. If no trace
+ * is active, a span that records nothing is returned.
+ * <p/>
+ * If a trace takes longer than {@value #SLOW_MILLIS_PROPERTY} milliseconds
+ * (default {@value #DEFAULT_SLOW_MILLIS}), the tree of its spans is logged.
+ *
+ * @author apatrikis
+ */
+public final class Tracer {
+
+    /**
+     * System property for the duration of a slow trace, in milliseconds.
+     */
+    public static final String SLOW_MILLIS_PROPERTY = "timetracker.trace.slowMillis";
+
+    /**
+     * Default duration of a slow trace, in milliseconds.
+     */
+    public static final int DEFAULT_SLOW_MILLIS = 1000;
+
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(Integer.getInteger(SLOW_MILLIS_PROPERTY, DEFAULT_SLOW_MILLIS));
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private static final Logger log = LoggerFactory.getLogger(Tracer.class);
+
+    private Tracer() {
+    }
+
+    /**
+     * Start a trace, or a child span if a trace is already active.
+     *
+     * @param name The name of the phase.
+     * @return The started span.
+     */
+    public static Span startTrace(String name) {
+        Span current = CURRENT.get();
+        Span span = new Span(name, current, MDC.get("UUID"));
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Start a child span of the active trace.
+     *
+     * @param name The name of the phase.
+     * @return The started span, or a span that records nothing if no trace is
+     * active.
+     */
+    public static Span startSpan(String name) {
+        Span current = CURRENT.get();
+        if (current == null) {
+            return Span.NOOP;
+        }
+        Span span = new Span(name, current, null);
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Get the span of the current thread.
+     *
+     * @return The current span, {@code null} if no trace is active.
+     */
+    public static Span currentSpan() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Called by {@link Span#close()}: make the parent the current span and log
+     * a slow trace.
+     *
+     * @param span The ended span.
+     */
+    static void end(Span span) {
+        Span parent = span.getParent();
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+            if (span.getDurationNanos() > SLOW_NANOS) {
+                StringBuilder sb = new StringBuilder(256);
+                sb.append("Slow request ").append(span.getRequestId()).append(":\n");
+                span.formatTo(sb, 1, span.getDurationNanos());
+                log.warn(sb.toString());
+            }
+        }
+    }
+}
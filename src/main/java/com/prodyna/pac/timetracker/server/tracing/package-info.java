@@ -0,0 +1,8 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+/**
+ * Package with classes for tracing the phases of a {@code Request}.
+ */
+package com.prodyna.pac.timetracker.server.tracing;
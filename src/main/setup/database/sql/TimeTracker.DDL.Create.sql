@@ -11,6 +11,9 @@ CREATE TABLE "APP"."EMPLOYEE"
    LASTNAME varchar(50) NOT NULL,
    PASSWORD varchar(70) NOT NULL
 );
+-- the Employee and Project search is a case insensitive LOWER(...) LIKE '%pattern%' query:
+-- DERBY has no function based indexes, and a leading wildcard cannot seek any index anyway,
+-- so no search indexes are created; see timetracker.cache.search.enabled for an in-memory index
 
 CREATE TABLE "APP"."EMPLOYEE2ROLE"
 (
@@ -55,6 +58,21 @@ CREATE TABLE "APP"."TIMERECORD"
 );
 -- CREATE INDEX IX_TR_PID ON "APP"."TIMERECORD"(PROJECT_PROJECTID);
 -- CREATE INDEX IX_TR_EMAIL ON "APP"."TIMERECORD"(OWNER_EMAIL);
+-- covering index for the overlap probe when creating or updating a TimeRecord
+CREATE INDEX IX_TR_EMAIL_START_END ON "APP"."TIMERECORD"(OWNER_EMAIL, STARTTIME, ENDTIME, PROJECT_PROJECTID);
+
+-- pre-aggregated daily totals, maintained together with TIMERECORD
+CREATE TABLE "APP"."TIMERECORD_DAILY"
+(
+   OWNER_EMAIL varchar(140) NOT NULL,
+   PROJECT_PROJECTID varchar(50) NOT NULL,
+   BOOKINGDAY date NOT NULL,
+   RECORDSTATUS int NOT NULL,
+   NETMINUTES bigint NOT NULL,
+   RECORDCOUNT int NOT NULL,
+   PRIMARY KEY (OWNER_EMAIL, PROJECT_PROJECTID, BOOKINGDAY, RECORDSTATUS)
+);
+CREATE INDEX IX_TRD_PID_DAY ON "APP"."TIMERECORD_DAILY"(PROJECT_PROJECTID, BOOKINGDAY);
 
 
 ALTER TABLE "APP"."EMPLOYEE2ROLE"
@@ -1,3 +1,4 @@
+DROP TABLE "APP"."TIMERECORD_DAILY";
 DROP TABLE "APP"."TIMERECORD";
 DROP TABLE "APP"."PROJECT2EMPLOYEE";
 DROP TABLE "APP"."PROJECT";
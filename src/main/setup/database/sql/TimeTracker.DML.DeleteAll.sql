@@ -1,3 +1,4 @@
+DELETE FROM "APP"."TIMERECORD_DAILY" WHERE 1 = 1;
 DELETE FROM "APP"."TIMERECORD" WHERE 1 = 1;
 DELETE FROM "APP"."PROJECT2EMPLOYEE" WHERE 1 = 1;
 DELETE FROM "APP"."PROJECT" WHERE 1 = 1;
@@ -0,0 +1,75 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server;
+
+import java.util.UUID;
+
+/**
+ * Microbenchmark of the per request cost of creating a request id:
+ * {@link UUID#randomUUID()} compared to
+ * {@link RequestIdGenerator#newRequestId()}. This is no test case, it is run
+ * manually, e. g. from the IDE or by
+ * <code>java -cp target/classes:target/test-classes com.prodyna.pac.timetracker.server.RequestIdGeneratorBenchmark [iterations]</code>.
+ * <p/>
+ * Both variants are warmed up before measuring, and a checksum of the ids is
+ * printed so the loops cannot be removed by the {@code JIT}. The results are
+ * only a rough hint; run it several times on an otherwise idle machine.
+ *
+ * @author apatrikis
+ */
+public final class RequestIdGeneratorBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 2000000;
+
+    private static final int ROUNDS = 5;
+
+    private RequestIdGeneratorBenchmark() {
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args Optional: the number of ids per round, default
+     * {@value #DEFAULT_ITERATIONS}.
+     */
+    public static void main(String[] args) {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        long checksum = 0;
+
+        // warm up both variants
+        checksum += runUUID(iterations);
+        checksum += runRequestIdGenerator(iterations);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum += runUUID(iterations);
+            long uuidNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            checksum += runRequestIdGenerator(iterations);
+            long generatorNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: UUID.randomUUID() %.1f ns/id, RequestIdGenerator.newRequestId() %.1f ns/id%n",
+                    round, (double) uuidNanos / iterations, (double) generatorNanos / iterations);
+        }
+        System.out.println("checksum: " + checksum);
+    }
+
+    private static long runUUID(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            checksum += UUID.randomUUID().toString().hashCode();
+        }
+        return checksum;
+    }
+
+    private static long runRequestIdGenerator(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            checksum += RequestIdGenerator.newRequestId().hashCode();
+        }
+        return checksum;
+    }
+}
@@ -242,6 +242,29 @@ public class EmployeesRESTTest extends AbstractRESTTest {
         Assert.assertTrue(String.format("Expected Employee email [%s], received: %s", employee.getEmail(), employees.get(0).getEmail()), employees.get(0).getEmail().equals(employee.getEmail()));
     }
 
+    /**
+     * Test paging the {@link Employee}s matching a search pattern.
+     */
+    @Test
+    @RunAsClient
+    public void test02_FindPaged() {
+        Assume.assumeNotNull(employee);
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.EMPLOYEES_PATH)
+                .path("find").path(employee.getEmail().substring(2, 5));
+
+        Response get = target.queryParam("limit", 1).request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+        List<Employee> employees = get.readEntity(new GenericType<List<Employee>>() {
+        });
+        Assert.assertTrue(String.format("Expected List with one element, received: %d", employees.size()), employees.size() == 1);
+
+        get = target.queryParam("offset", 1).request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+        employees = get.readEntity(new GenericType<List<Employee>>() {
+        });
+        Assert.assertTrue(String.format("Expected empty List, received: %d", employees.size()), employees.isEmpty());
+    }
+
     /**
      * Test creating an incomplete {@link Employee}.
      */
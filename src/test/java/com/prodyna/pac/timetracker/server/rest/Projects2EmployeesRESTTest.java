@@ -9,9 +9,11 @@ import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.Employee2Role;
 import com.prodyna.pac.timetracker.entity.EmployeeRole;
 import com.prodyna.pac.timetracker.entity.Project;
+import java.util.Arrays;
 import java.util.List;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -242,6 +244,62 @@ public class Projects2EmployeesRESTTest extends AbstractRESTTest {
         Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.NOT_FOUND.getStatusCode(), delete.getStatus(), delete.toString()), delete.getStatus() == Response.Status.NOT_FOUND.getStatusCode());
     }
 
+    /**
+     * Test assign a list of {@link Employee}s to a {@link Project}.
+     */
+    @Test
+    @RunAsClient
+    public void test04_AssignEmployees() {
+        Assume.assumeNotNull(project2, manager, user);
+        Entity<List<Employee>> json = Entity.json(new GenericEntity<List<Employee>>(Arrays.asList(user, manager)) {
+        });
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.PROJECTS2EMPLOYEES_PATH, manager);
+        target = target.path(RESTConfig.PROJECTS_PATH).path(project2.getProjectId()).path(RESTConfig.EMPLOYEES_PATH);
+        Response post = target.path(RESTConfig.BATCH_PATH).request(MediaType.APPLICATION_JSON).post(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.OK.getStatusCode());
+
+        // check
+        Response get = target.request(MediaType.APPLICATION_JSON).get();
+        List<Employee> assignments = get.readEntity(new GenericType<List<Employee>>() {
+        });
+        Assert.assertTrue(String.format("Expected List with two elements, received: %d", assignments.size()), assignments.size() == 2);
+
+        // clean up
+        for (Employee employee : Arrays.asList(user, manager)) {
+            Response delete = target.path(employee.getEmail()).request().delete();
+            Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), delete.getStatus(), delete.toString()), delete.getStatus() == Response.Status.OK.getStatusCode());
+        }
+    }
+
+    /**
+     * Test assigning a list of {@link Employee}s that contains an unknown
+     * {@link Employee}, and an empty list: nothing is assigned.
+     */
+    @Test
+    @RunAsClient
+    public void test05_failAssignEmployees() {
+        Assume.assumeNotNull(project2, manager, user);
+        Employee unknown = createEmployee("unknown", "p2e");
+        Entity<List<Employee>> json = Entity.json(new GenericEntity<List<Employee>>(Arrays.asList(user, unknown)) {
+        });
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.PROJECTS2EMPLOYEES_PATH, manager);
+        target = target.path(RESTConfig.PROJECTS_PATH).path(project2.getProjectId()).path(RESTConfig.EMPLOYEES_PATH);
+        Response post = target.path(RESTConfig.BATCH_PATH).request(MediaType.APPLICATION_JSON).post(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.CONFLICT.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.CONFLICT.getStatusCode());
+        Assert.assertTrue("Header X-ServerException-Type of type [PrimaryKeyException] contend expected, found [%s]" + post.getHeaderString("X-ServerException-Type"), post.getHeaderString("X-ServerException-Type").contains("PrimaryKeyException"));
+
+        json = Entity.json(new GenericEntity<List<Employee>>(Arrays.<Employee>asList()) {
+        });
+        post = target.path(RESTConfig.BATCH_PATH).request(MediaType.APPLICATION_JSON).post(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.BAD_REQUEST.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.BAD_REQUEST.getStatusCode());
+
+        // check
+        Response get = target.request(MediaType.APPLICATION_JSON).get();
+        List<Employee> assignments = get.readEntity(new GenericType<List<Employee>>() {
+        });
+        Assert.assertTrue(String.format("Expected empty List, received: %d", assignments.size()), assignments.isEmpty());
+    }
+
     /**
      * Helper for creating a required {@link Employee} object.
      *
@@ -0,0 +1,223 @@
+/*
+ * PRODYNA PAC 2015 - Time Tracker
+ * Anastasios Patrikis
+ */
+package com.prodyna.pac.timetracker.server.rest;
+
+import com.prodyna.pac.ArquillianHelper;
+import com.prodyna.pac.timetracker.entity.Employee;
+import com.prodyna.pac.timetracker.entity.Employee2Role;
+import com.prodyna.pac.timetracker.entity.EmployeeRole;
+import com.prodyna.pac.timetracker.entity.Project;
+import com.prodyna.pac.timetracker.server.cache.SearchIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.inject.Inject;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test class for searching {@link Project}s by the {@code REST interface}
+ * {@link ProjectsREST} with the {@link SearchIndex} enabled: ranking, paging
+ * and maintaining the index after create, update and delete.
+ *
+ * @author apatrikis
+ */
+@RunWith(Arquillian.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SearchIndexRESTTest extends AbstractRESTTest {
+
+    private static final String PATTERN = "idxrank";
+
+    private static Employee employee;
+    private static Project exactProject;
+    private static Project prefixProject;
+    private static Project substringProject;
+    private static Project otherProject;
+
+    @Inject
+    private SearchIndex searchIndex;
+
+    /**
+     * Create a deployment archive for {@code Arquillian} test execution.
+     *
+     * @return The crated {@link WebArchive}.
+     */
+    @Deployment
+    public static WebArchive createDeployment() {
+        return ArquillianHelper.createDeployment();
+    }
+
+    @Override
+    @Test
+    public void initTest_CreateBaseObjects() throws Exception {
+        ensureDefaultAdmin();
+        // same as starting the server with -Dtimetracker.cache.search.enabled=true
+        Assume.assumeNotNull(searchIndex);
+        searchIndex.setEnabled(true);
+    }
+
+    @Override
+    @Test
+    @RunAsClient
+    public void test00_CreateRequiredObjects() {
+        // create employee
+        employee = createEmployee("search", "test");
+        Entity<Employee> json = Entity.json(employee);
+
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.EMPLOYEES_PATH);
+        Response post = target.request().post(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.CREATED.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.CREATED.getStatusCode());
+
+        // create employee role assignment
+        Employee2Role employeeRole = createEmployee2Role(employee, EmployeeRole.MANAGER);
+        employeeRole.setId("id-" + employee.getEmail());
+        Entity<Employee2Role> jsonER = Entity.json(employeeRole);
+
+        target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.EMPLOYEES2ROLES_PATH);
+        post = target.request().post(jsonER);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.CREATED.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.CREATED.getStatusCode());
+    }
+
+    @Override
+    @Test
+    @RunAsClient
+    public void test99_DeleteRequiredObjects() {
+        Assume.assumeNotNull(employee);
+
+        // delete projects
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.PROJECTS_PATH);
+        for (Project project : Arrays.asList(exactProject, substringProject, otherProject)) {
+            if (project != null) {
+                Response delete = target.path(project.getProjectId()).request().delete();
+                Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), delete.getStatus(), delete.toString()), delete.getStatus() == Response.Status.OK.getStatusCode());
+            }
+        }
+
+        // delete employ role assignment
+        target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.EMPLOYEES2ROLES_PATH);
+        Response delete = target.path("id-" + employee.getEmail()).request().delete();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: %d (%s)", Response.Status.OK.getStatusCode(), delete.getStatus(), delete.toString()), delete.getStatus() == Response.Status.OK.getStatusCode());
+
+        // delete employee
+        target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.EMPLOYEES_PATH);
+        delete = target.path(employee.getEmail()).request().delete();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), delete.getStatus(), delete.toString()), delete.getStatus() == Response.Status.OK.getStatusCode());
+    }
+
+    /**
+     * Test creating the {@link Project}s to search for. The project ids are
+     * created in an order different from the expected ranking.
+     */
+    @Test
+    @RunAsClient
+    public void test01_CreateProjects() {
+        Assume.assumeNotNull(employee);
+        substringProject = createProject("sub-" + PATTERN, employee);
+        otherProject = createProject("not-matching", employee);
+        prefixProject = createProject(PATTERN + "-prefix", employee);
+        exactProject = createProject(PATTERN, employee);
+
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.PROJECTS_PATH);
+        for (Project project : Arrays.asList(substringProject, otherProject, prefixProject, exactProject)) {
+            Response post = target.request().post(Entity.json(project));
+            Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.CREATED.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.CREATED.getStatusCode());
+        }
+    }
+
+    /**
+     * Test the ranking: exact match first, then prefix match, then substring
+     * match.
+     */
+    @Test
+    @RunAsClient
+    public void test02_FindRanked() {
+        Assume.assumeNotNull(exactProject, prefixProject, substringProject);
+        List<String> expected = Arrays.asList(exactProject.getProjectId(), prefixProject.getProjectId(), substringProject.getProjectId());
+        List<String> found = helpFind(createBasicAuthenticationClient(RESTConfig.PROJECTS_PATH, employee).path("find").path(PATTERN));
+        Assert.assertTrue(String.format("Expected Project IDs %s, received: %s", expected, found), expected.equals(found));
+    }
+
+    /**
+     * Test paging the ranked search result.
+     */
+    @Test
+    @RunAsClient
+    public void test02_FindPaged() {
+        Assume.assumeNotNull(prefixProject);
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.PROJECTS_PATH, employee).path("find").path(PATTERN)
+                .queryParam("offset", 1).queryParam("limit", 1);
+        List<String> expected = Arrays.asList(prefixProject.getProjectId());
+        List<String> found = helpFind(target);
+        Assert.assertTrue(String.format("Expected Project IDs %s, received: %s", expected, found), expected.equals(found));
+    }
+
+    /**
+     * Test that an updated {@link Project} is found by its new description.
+     */
+    @Test
+    @RunAsClient
+    public void test03_FindUpdated() {
+        Assume.assumeNotNull(otherProject);
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.PROJECTS_PATH, employee);
+        Response get = target.path(otherProject.getProjectId()).request(MediaType.APPLICATION_JSON).get();
+        Project projectResponse = get.readEntity(Project.class);
+
+        projectResponse.setDescription("now matching " + PATTERN);
+        Response put = target.request().put(Entity.json(projectResponse));
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), put.getStatus(), put.toString()), put.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<String> expected = Arrays.asList(exactProject.getProjectId(), prefixProject.getProjectId(), substringProject.getProjectId(), otherProject.getProjectId());
+        List<String> found = helpFind(target.path("find").path(PATTERN));
+        Assert.assertTrue(String.format("Expected Project IDs %s, received: %s", expected, found), expected.equals(found));
+    }
+
+    /**
+     * Test that a deleted {@link Project} is no longer found.
+     */
+    @Test
+    @RunAsClient
+    public void test04_FindDeleted() {
+        Assume.assumeNotNull(prefixProject);
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.PROJECTS_PATH);
+        Response delete = target.path(prefixProject.getProjectId()).request().delete();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), delete.getStatus(), delete.toString()), delete.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<String> found = helpFind(createBasicAuthenticationClient(RESTConfig.PROJECTS_PATH, employee).path("find").path(PATTERN));
+        Assert.assertFalse(String.format("Deleted Project ID [%s] not expected, received: %s", prefixProject.getProjectId(), found), found.contains(prefixProject.getProjectId()));
+        Assert.assertTrue(String.format("Expected List with three elements, received: %s", found), found.size() == 3);
+    }
+
+    /**
+     * Helper for reading the project ids of a search result.
+     *
+     * @param target The {@link WebTarget} of the search.
+     * @return The project ids, in the order returned.
+     */
+    private List<String> helpFind(WebTarget target) {
+        Response get = target.request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<Project> projects = get.readEntity(new GenericType<List<Project>>() {
+        });
+        List<String> projectIDs = new ArrayList<>();
+        for (Project project : projects) {
+            projectIDs.add(project.getProjectId());
+        }
+        return projectIDs;
+    }
+}
@@ -9,6 +9,7 @@ import com.prodyna.pac.timetracker.entity.Employee;
 import com.prodyna.pac.timetracker.entity.Employee2Role;
 import com.prodyna.pac.timetracker.entity.EmployeeRole;
 import com.prodyna.pac.timetracker.pojo.ChangePassword;
+import com.prodyna.pac.timetracker.server.pojo.AuthToken;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
@@ -101,6 +102,32 @@ public class SecurityRESTTest extends AbstractRESTTest {
         Assert.assertTrue(String.format("Expected Employee email [%s], received: %s", employee.getEmail(), employeeResponse.getEmail()), employee.getEmail().equals(employeeResponse.getEmail()));
     }
 
+    /**
+     * Test creating a bearer token and using it instead of the credentials.
+     */
+    @Test
+    @RunAsClient
+    public void test01_CreateToken() {
+        Assume.assumeNotNull(employee);
+
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.SECURITY_PATH, employee);
+        Response post = target.path("token").request(MediaType.APPLICATION_JSON).post(null);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.OK.getStatusCode());
+        AuthToken token = post.readEntity(AuthToken.class);
+        Assert.assertNotNull("Token expected", token.getToken());
+
+        WebTarget tokenTarget = createNoAuthenticationClient(RESTConfig.SECURITY_PATH);
+        Response get = tokenTarget.path(EmployeeRole.ROLE_USER).request().header("Authorization", "Bearer " + token.getToken()).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        Response forged = tokenTarget.path(EmployeeRole.ROLE_USER).request().header("Authorization", "Bearer x" + token.getToken()).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.UNAUTHORIZED.getStatusCode(), forged.getStatus(), forged.toString()), forged.getStatus() == Response.Status.UNAUTHORIZED.getStatusCode());
+
+        // a token must not be renewed by itself
+        Response renew = tokenTarget.path("token").request(MediaType.APPLICATION_JSON).header("Authorization", "Bearer " + token.getToken()).post(null);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.FORBIDDEN.getStatusCode(), renew.getStatus(), renew.toString()), renew.getStatus() == Response.Status.FORBIDDEN.getStatusCode());
+    }
+
     /**
      * Test checking login creedentials with a missing role.
      */
@@ -212,6 +239,73 @@ public class SecurityRESTTest extends AbstractRESTTest {
         Assert.assertTrue("Header X-ServerException-Type of type [PasswordChangeException] contend expected, found [%s]" + post.getHeaderString("X-ServerException-Type"), post.getHeaderString("X-ServerException-Type").contains("PasswordChangeException"));
     }
 
+    /**
+     * Test that resetting the password revokes the bearer tokens issued
+     * before.
+     */
+    @Test
+    @RunAsClient
+    public void test04_RevokeTokenOnPasswordReset() {
+        Assume.assumeNotNull(employee);
+
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.SECURITY_PATH, employee);
+        Response post = target.path("token").request(MediaType.APPLICATION_JSON).post(null);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.OK.getStatusCode());
+        AuthToken token = post.readEntity(AuthToken.class);
+
+        WebTarget tokenTarget = createNoAuthenticationClient(RESTConfig.SECURITY_PATH);
+        Response get = tokenTarget.path(EmployeeRole.ROLE_USER).request().header("Authorization", "Bearer " + token.getToken()).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        // reset
+        ChangePassword changePassword = new ChangePassword();
+        changePassword.setEmail(employee.getEmail());
+        changePassword.setCurrentPassword("this_will_be_ignored");
+        changePassword.setNewPassword("revoke-" + employee.getPassword());
+        Entity<ChangePassword> json = Entity.json(changePassword);
+
+        WebTarget adminTarget = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.SECURITY_PATH);
+        post = adminTarget.path("reset").request(MediaType.APPLICATION_JSON).post(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.OK.getStatusCode());
+        employee.setPassword(changePassword.getNewPassword());
+
+        get = tokenTarget.path(EmployeeRole.ROLE_USER).request().header("Authorization", "Bearer " + token.getToken()).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.UNAUTHORIZED.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.UNAUTHORIZED.getStatusCode());
+    }
+
+    /**
+     * Test that changing the password invalidates the cached credentials: the
+     * old password is rejected, the new one is accepted.
+     */
+    @Test
+    @RunAsClient
+    public void test05_ChangePasswdInvalidatesCredentials() {
+        Assume.assumeNotNull(employee);
+        String oldPassword = employee.getPassword();
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.SECURITY_PATH, employee);
+        Response get = target.path(EmployeeRole.ROLE_USER).request().get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        ChangePassword changePassword = new ChangePassword();
+        changePassword.setEmail(employee.getEmail());
+        changePassword.setCurrentPassword(oldPassword);
+        changePassword.setNewPassword("cached-" + oldPassword);
+        Entity<ChangePassword> json = Entity.json(changePassword);
+
+        Response post = target.path("change").request(MediaType.APPLICATION_JSON).post(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.OK.getStatusCode());
+
+        // old password
+        get = target.path(EmployeeRole.ROLE_USER).request().get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.UNAUTHORIZED.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.UNAUTHORIZED.getStatusCode());
+
+        // new password
+        employee.setPassword(changePassword.getNewPassword());
+        target = createBasicAuthenticationClient(RESTConfig.SECURITY_PATH, employee);
+        get = target.path(EmployeeRole.ROLE_USER).request().get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+    }
+
     /**
      * Helper for creating a required {@link Employee} object.
      */
@@ -59,4 +59,21 @@ public class StatusRestTest extends AbstractRESTTest {
         Response get = target.request().get();
         Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
     }
+
+    /**
+     * Test if the metrics URL is responding without authentication and
+     * renders the monitors.
+     */
+    @Test
+    @RunAsClient
+    public void test02_testMetrics() {
+        createNoAuthenticationClient(RESTConfig.STATUS_PATH).request().get();
+
+        WebTarget target = createNoAuthenticationClient(RESTConfig.METRICS_PATH);
+        Response get = target.request().get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        String metrics = get.readEntity(String.class);
+        Assert.assertTrue("Metrics of the status calls expected", metrics.contains("timetracker_calls_total{service=\"StatusREST\"}"));
+    }
 }
@@ -10,12 +10,16 @@ import com.prodyna.pac.timetracker.entity.Employee2Role;
 import com.prodyna.pac.timetracker.entity.EmployeeRole;
 import com.prodyna.pac.timetracker.entity.Project;
 import com.prodyna.pac.timetracker.entity.TimeRecord;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordResult;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordTotal;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -235,6 +239,61 @@ public class TimeRecordsRESTTest extends AbstractRESTTest {
         Assert.assertTrue(String.format("Expected TimeRecord ID [%s], received: %s", timeRecord.getId(), timeRecords.get(0).getId()), timeRecords.get(0).getId().equals(timeRecord.getId()));
     }
 
+    /**
+     * Test reading all {@link TimeRecord}s page by page.
+     */
+    @Test
+    @RunAsClient
+    public void test02_ReadAllPaged() {
+        Assume.assumeNotNull(timeRecord);
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.TIMERECORDS_PATH);
+        Response get = target.queryParam("limit", 1).request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<TimeRecord> timeRecords = null;
+        try {
+            timeRecords = get.readEntity(new GenericType<List<TimeRecord>>() {
+            });
+        }
+        catch (Exception e) {
+            Assert.fail(e.getMessage());
+        }
+        Assert.assertNotNull("List expected", timeRecords);
+        Assert.assertTrue(String.format("Expected List with one element, received: %d", timeRecords.size()), timeRecords.size() == 1);
+        Assert.assertTrue(String.format("Expected TimeRecord ID [%s], received: %s", timeRecord.getId(), timeRecords.get(0).getId()), timeRecords.get(0).getId().equals(timeRecord.getId()));
+
+        // next page
+        get = target.queryParam("limit", 1).queryParam("after", timeRecord.getId()).request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+        timeRecords = get.readEntity(new GenericType<List<TimeRecord>>() {
+        });
+        Assert.assertTrue(String.format("Expected empty List, received: %d", timeRecords.size()), timeRecords.isEmpty());
+    }
+
+    /**
+     * Test streaming all {@link TimeRecord}s.
+     */
+    @Test
+    @RunAsClient
+    public void test02_ReadAllStreamed() {
+        Assume.assumeNotNull(timeRecord);
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.TIMERECORDS_PATH);
+        Response get = target.queryParam("stream", true).request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<TimeRecord> timeRecords = null;
+        try {
+            timeRecords = get.readEntity(new GenericType<List<TimeRecord>>() {
+            });
+        }
+        catch (Exception e) {
+            Assert.fail(e.getMessage());
+        }
+        Assert.assertNotNull("List expected", timeRecords);
+        Assert.assertTrue(String.format("Expected List with one element, received: %d", timeRecords.size()), timeRecords.size() == 1);
+        Assert.assertTrue(String.format("Expected TimeRecord ID [%s], received: %s", timeRecord.getId(), timeRecords.get(0).getId()), timeRecords.get(0).getId().equals(timeRecord.getId()));
+    }
+
     /**
      * Test finding all {@link TimeRecord}s assigned to a {@link Employee}.
      */
@@ -363,6 +422,50 @@ public class TimeRecordsRESTTest extends AbstractRESTTest {
         Assert.assertTrue(String.format("Expected empty List, received: %d", timeRecords.size()), timeRecords.isEmpty());
     }
 
+    /**
+     * Test summing up the booking time of a {@link Employee} and
+     * {@link Project} per month.
+     */
+    @Test
+    @RunAsClient
+    public void test02_TotalsByOwnerProjectMonth() {
+        Assume.assumeNotNull(user, project, timeRecord);
+        String fromISODateTime = "2015-01-01T00:00:00.000Z";
+        String throughISODateTime = "2015-02-01T00:00:00.000Z";
+
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.TIMERECORDS_PATH, user);
+        Response get = target.path(String.format("totals/month/owner/%s/project/%s/from/%s/through/%s", user.getEmail(), project.getProjectId(), fromISODateTime, throughISODateTime)).request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<TimeRecordTotal> totals = null;
+        try {
+            totals = get.readEntity(new GenericType<List<TimeRecordTotal>>() {
+            });
+        }
+        catch (Exception e) {
+            Assert.fail(e.getMessage());
+        }
+        Assert.assertNotNull("List expected", totals);
+        Assert.assertTrue(String.format("Expected List with one element, received: %d", totals.size()), totals.size() == 1);
+        long expectedMinutes = 8 * 60 - timeRecord.getPauseMinutes();
+        Assert.assertTrue(String.format("Expected net minutes [%d], received: %d", expectedMinutes, totals.get(0).getNetMinutes()), totals.get(0).getNetMinutes() == expectedMinutes);
+        Assert.assertTrue(String.format("Expected record count [1], received: %d", totals.get(0).getRecordCount()), totals.get(0).getRecordCount() == 1);
+    }
+
+    /**
+     * Test rebuilding the daily totals keeps the summed up booking time.
+     */
+    @Test
+    @RunAsClient
+    public void test02_TotalsRebuild() {
+        Assume.assumeNotNull(user, project, timeRecord);
+        WebTarget target = createBasicAuthenticationClientForDefaultAdmin(RESTConfig.TIMERECORDS_PATH);
+        Response post = target.path("totals/rebuild").request().post(null);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.OK.getStatusCode());
+
+        test02_TotalsByOwnerProjectMonth();
+    }
+
     /**
      * Test finding all {@link TimeRecord}s wuth an incorrect time frame.
      */
@@ -441,6 +544,41 @@ public class TimeRecordsRESTTest extends AbstractRESTTest {
         Assert.assertTrue("Header X-ServerException-Type of type [EntityDataException] contend expected, found [%s]" + post.getHeaderString("X-ServerException-Type"), post.getHeaderString("X-ServerException-Type").contains("EntityDataException"));
     }
 
+    /**
+     * Test creating a list of {@link TimeRecord}s, with rejected entries.
+     */
+    @Test
+    @RunAsClient
+    public void test05_CreateBatch() {
+        Assume.assumeNotNull(user, project);
+        TimeRecord valid = createTimeRecord(user, project,
+                Date.from(ZonedDateTime.parse("2015-02-02T09:00:00.000Z", DateTimeFormatter.ISO_DATE_TIME).toInstant()),
+                Date.from(ZonedDateTime.parse("2015-02-02T17:00:00.000Z", DateTimeFormatter.ISO_DATE_TIME).toInstant()));
+        TimeRecord overlapping = createTimeRecord(user, project,
+                Date.from(ZonedDateTime.parse("2015-02-02T12:00:00.000Z", DateTimeFormatter.ISO_DATE_TIME).toInstant()),
+                Date.from(ZonedDateTime.parse("2015-02-02T13:00:00.000Z", DateTimeFormatter.ISO_DATE_TIME).toInstant()));
+        TimeRecord tooLongPause = createTimeRecord(user, project,
+                Date.from(ZonedDateTime.parse("2015-02-03T09:00:00.000Z", DateTimeFormatter.ISO_DATE_TIME).toInstant()),
+                Date.from(ZonedDateTime.parse("2015-02-03T09:30:00.000Z", DateTimeFormatter.ISO_DATE_TIME).toInstant()));
+        Entity<List<TimeRecord>> json = Entity.json(new GenericEntity<List<TimeRecord>>(Arrays.asList(valid, overlapping, tooLongPause)) {
+        });
+
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.TIMERECORDS_PATH, user);
+        Response post = target.path(RESTConfig.BATCH_PATH).request(MediaType.APPLICATION_JSON).post(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), post.getStatus(), post.toString()), post.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<TimeRecordResult> results = post.readEntity(new GenericType<List<TimeRecordResult>>() {
+        });
+        Assert.assertTrue(String.format("Expected List with three elements, received: %d", results.size()), results.size() == 3);
+        Assert.assertNotNull("Created entry expected: " + results.get(0), results.get(0).getId());
+        Assert.assertNotNull("Overlapping entry expected: " + results.get(1), results.get(1).getError());
+        Assert.assertNotNull("Too long pause expected: " + results.get(2), results.get(2).getError());
+
+        // clean up
+        Response delete = target.path(results.get(0).getId()).request().delete();
+        Assert.assertTrue(String.format("Response code not expected (%d): %s", delete.getStatus(), delete.toString()), delete.getStatus() == Response.Status.OK.getStatusCode());
+    }
+
     /**
      * Test deleting an undefined {@link TimeRecord}.
      */
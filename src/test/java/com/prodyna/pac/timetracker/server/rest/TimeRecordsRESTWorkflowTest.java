@@ -11,8 +11,11 @@ import com.prodyna.pac.timetracker.entity.EmployeeRole;
 import com.prodyna.pac.timetracker.entity.Project;
 import com.prodyna.pac.timetracker.entity.TimeRecord;
 import com.prodyna.pac.timetracker.entity.TimeRecordStatus;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordResult;
+import com.prodyna.pac.timetracker.server.pojo.TimeRecordStatusChange;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import javax.ws.rs.client.Entity;
@@ -332,6 +335,40 @@ public class TimeRecordsRESTWorkflowTest extends AbstractRESTTest {
         Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), put.getStatus(), put.toString()), put.getStatus() == Response.Status.OK.getStatusCode());
     }
 
+    /**
+     * Test changing the {@link TimeRecordStatus} of mutliple
+     * {@link TimeRecord}s at once: only valid transitions are applied.
+     */
+    @Test
+    @RunAsClient
+    public void test08_ChangeStatusBatch() {
+        Assume.assumeNotNull(manager, recordBefore, recordAfter);
+        // recordBefore is READY_FOR_APPROVAL, recordAfter is EDITING
+        TimeRecordStatusChange statusChange = new TimeRecordStatusChange(
+                Arrays.asList(recordBefore.getId(), recordAfter.getId(), "no-such-record"), TimeRecordStatus.REWORK);
+        Entity<TimeRecordStatusChange> json = Entity.json(statusChange);
+
+        WebTarget target = createBasicAuthenticationClient(RESTConfig.TIMERECORDS_PATH, manager);
+        Response put = target.path(RESTConfig.BATCH_PATH).path("status").request(MediaType.APPLICATION_JSON).put(json);
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), put.getStatus(), put.toString()), put.getStatus() == Response.Status.OK.getStatusCode());
+
+        List<TimeRecordResult> results = put.readEntity(new GenericType<List<TimeRecordResult>>() {
+        });
+        Assert.assertTrue(String.format("Expected List with three elements, received: %d", results.size()), results.size() == 3);
+        Assert.assertEquals(recordBefore.getId(), results.get(0).getId());
+        Assert.assertNull(results.get(0).getError());
+        Assert.assertNull(results.get(1).getId());
+        Assert.assertNotNull("Invalid transition must be rejected", results.get(1).getError());
+        Assert.assertNull(results.get(2).getId());
+        Assert.assertNotNull("Missing entry must be rejected", results.get(2).getError());
+
+        // check
+        Response get = target.path(recordBefore.getId()).request(MediaType.APPLICATION_JSON).get();
+        Assert.assertTrue(String.format("Response code (%d) expected, received: (%d) %s", Response.Status.OK.getStatusCode(), get.getStatus(), get.toString()), get.getStatus() == Response.Status.OK.getStatusCode());
+        TimeRecord changed = get.readEntity(TimeRecord.class);
+        Assert.assertTrue(String.format("Expected TimeRecord status [%s], received: %s", TimeRecordStatus.REWORK, changed.getRecordStatus().toString()), changed.getRecordStatus().equals(TimeRecordStatus.REWORK));
+    }
+
     /**
      * Test delete mutliple {@link TimeRecord}s.
      */